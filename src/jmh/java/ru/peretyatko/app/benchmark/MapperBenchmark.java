@@ -0,0 +1,84 @@
+package ru.peretyatko.app.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.peretyatko.app.dto.seller.SellerPostRequest;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.mapper.SellerMapper;
+import ru.peretyatko.app.mapper.SellerMapperImpl;
+import ru.peretyatko.app.mapper.TransactionMapper;
+import ru.peretyatko.app.mapper.TransactionMapperImpl;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private final TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+    private final SellerMapper sellerMapper = new SellerMapperImpl();
+
+    private List<Transaction> transactions;
+
+    private List<Seller> sellers;
+
+    private TransactionPostRequest transactionPostRequest;
+
+    private SellerPostRequest sellerPostRequest;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00");
+        transactions = new ArrayList<>(size);
+        sellers = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Seller seller = new Seller(i, "Seller " + i, "seller" + i + "@mail.ru", date, null);
+            sellers.add(seller);
+            transactions.add(new Transaction(i, seller, 100 + i, i % 2 == 0 ? PaymentType.CASH : PaymentType.CARD, date.plusMinutes(i)));
+        }
+        transactionPostRequest = new TransactionPostRequest(1L, 1500, PaymentType.CARD);
+        sellerPostRequest = new SellerPostRequest("Ilya", "+78005553535");
+    }
+
+    @Benchmark
+    public List<TransactionResponse> toTransactionResponses() {
+        List<TransactionResponse> responses = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            responses.add(transactionMapper.toTransactionResponse(transaction));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<SellerResponse> toSellerResponses() {
+        List<SellerResponse> responses = new ArrayList<>(sellers.size());
+        for (Seller seller : sellers) {
+            responses.add(sellerMapper.toSellerResponse(seller));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public Transaction toTransaction() {
+        return transactionMapper.toTransaction(transactionPostRequest);
+    }
+
+    @Benchmark
+    public Seller toSeller() {
+        return sellerMapper.toSeller(sellerPostRequest);
+    }
+
+}
@@ -0,0 +1,52 @@
+package ru.peretyatko.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.peretyatko.app.dto.PageResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"1", "50", "500", "5000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<TransactionResponse> transactions;
+
+    private PageResponse<TransactionResponse> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00");
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            transactions.add(new TransactionResponse(i, i % 100, 100 + i, i % 2 == 0 ? PaymentType.CASH : PaymentType.CARD, date.plusMinutes(i)));
+        }
+        page = new PageResponse<>(transactions, "MjAyNC0xMC0wMVQxNTozMDowMHwxMjM");
+    }
+
+    @Benchmark
+    public byte[] transactionList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] transactionPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+}
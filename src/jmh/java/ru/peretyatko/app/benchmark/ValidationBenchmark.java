@@ -0,0 +1,85 @@
+package ru.peretyatko.app.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.validation.BeanPropertyBindingResult;
+import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
+import ru.peretyatko.app.error.exception.ValidationException;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.validator.transaction.TransactionValidatorImp;
+
+import java.util.Set;
+
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final String[][] FIELD_ERRORS = {
+            {"amount", "DecimalMin", "Amount must be greater than zero"},
+            {"paymentType", "NotNull", "Payment type cannot be null."},
+            {"sellerId", "NotNull", "Seller id cannot be null."}
+    };
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private final TransactionValidatorImp transactionValidator = new TransactionValidatorImp();
+
+    private TransactionPostRequest valid;
+
+    private TransactionPostRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = new TransactionPostRequest(1L, 1500, PaymentType.CARD);
+        invalid = new TransactionPostRequest(1L, -1, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TransactionPostRequest>> beanValidationValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TransactionPostRequest>> beanValidationInvalid() {
+        return validator.validate(invalid);
+    }
+
+    @Benchmark
+    public ValidationException createAndThrowException(FieldErrors fieldErrors) {
+        BeanPropertyBindingResult errors = new BeanPropertyBindingResult(invalid, "transactionPostRequest");
+        for (int i = 0; i < fieldErrors.count; ++i) {
+            errors.rejectValue(FIELD_ERRORS[i][0], FIELD_ERRORS[i][1], FIELD_ERRORS[i][2]);
+        }
+        try {
+            transactionValidator.validate(invalid, errors);
+            return null;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FieldErrors {
+
+        @Param({"1", "3"})
+        private int count;
+
+    }
+
+}
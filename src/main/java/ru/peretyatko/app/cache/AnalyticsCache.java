@@ -0,0 +1,227 @@
+package ru.peretyatko.app.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.peretyatko.app.datasource.ReplicaRoutingDataSource;
+import ru.peretyatko.app.dto.AnalyticsCacheStatsResponse;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class AnalyticsCache implements MeterBinder, DisposableBean {
+
+    private final AnalyticsCacheProperties properties;
+
+    private final TransactionOperations refreshTransactions;
+
+    private final Clock clock;
+
+    private final Executor refreshExecutor;
+
+    private final Cache<AnalyticsKey, Entry> cache;
+
+    private final Set<AnalyticsKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final Set<Load> loading = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder refreshes = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public AnalyticsCache(AnalyticsCacheProperties properties, PlatformTransactionManager transactionManager) {
+        this(properties, readOnly(transactionManager), Clock.systemDefaultZone(), refreshExecutor(properties));
+    }
+
+    AnalyticsCache(AnalyticsCacheProperties properties, TransactionOperations refreshTransactions, Clock clock, Executor refreshExecutor) {
+        this.properties = properties;
+        this.refreshTransactions = refreshTransactions;
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfter(new EntryExpiry(properties.getLiveTtl().plus(properties.getStaleWindow()).toNanos()))
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(AnalyticsKey key, Supplier<T> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            long age = clock.millis() - entry.loadedAt();
+            if (!entry.live() || age < properties.getLiveTtl().toMillis()) {
+                hits.increment();
+                return (T) entry.value();
+            }
+            if (age < properties.getLiveTtl().plus(properties.getStaleWindow()).toMillis()) {
+                staleHits.increment();
+                refreshAsync(key, loader);
+                return (T) entry.value();
+            }
+        }
+        misses.increment();
+        return load(key, loader);
+    }
+
+    @TransactionalEventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Set<LocalDateTime> dates = event.getChanges().stream()
+                .map(TransactionChange::getTransactionDate)
+                .collect(Collectors.toSet());
+        loading.stream()
+                .filter(load -> dates.stream().anyMatch(load.key::covers))
+                .forEach(load -> load.invalidated = true);
+        cache.asMap().forEach((key, entry) -> {
+            if (!entry.live() && dates.stream().anyMatch(key::covers) && cache.asMap().remove(key, entry)) {
+                invalidations.increment();
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onSellerChanged(SellerChangedEvent event) {
+        if (event.getType() == ChangeType.CREATED) {
+            return;
+        }
+        loading.forEach(load -> load.invalidated = true);
+        invalidations.add(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("crm.analytics.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("crm.analytics.cache.requests", staleHits, LongAdder::sum).tag("result", "stale").register(registry);
+        FunctionCounter.builder("crm.analytics.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("crm.analytics.cache.refreshes", refreshes, LongAdder::sum).register(registry);
+        FunctionCounter.builder("crm.analytics.cache.invalidations", invalidations, LongAdder::sum).register(registry);
+        Gauge.builder("crm.analytics.cache.size", cache, Cache::estimatedSize).register(registry);
+    }
+
+    public AnalyticsCacheStatsResponse getStats() {
+        return new AnalyticsCacheStatsResponse(hits.sum(), staleHits.sum(), misses.sum(), refreshes.sum(),
+                invalidations.sum(), cache.estimatedSize());
+    }
+
+    private <T> T load(AnalyticsKey key, Supplier<T> loader) {
+        Load load = new Load(key);
+        loading.add(load);
+        try {
+            T value = ReplicaRoutingDataSource.callOnPrimary(loader);
+            long loadedAt = clock.millis();
+            boolean live = !key.endsBefore(LocalDateTime.now(clock));
+            if (!load.invalidated) {
+                cache.put(key, new Entry(value, loadedAt, live));
+            }
+            return value;
+        } finally {
+            loading.remove(load);
+        }
+    }
+
+    private void refreshAsync(AnalyticsKey key, Supplier<?> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshTransactions.executeWithoutResult(status -> load(key, loader));
+                    refreshes.increment();
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private static ExecutorService refreshExecutor(AnalyticsCacheProperties properties) {
+        return new ThreadPoolExecutor(properties.getRefreshThreads(), properties.getRefreshThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getRefreshQueueSize()),
+                Thread.ofPlatform().name("analytics-cache-refresh-", 0).daemon(true).factory());
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private record Entry(Object value, long loadedAt, boolean live) {
+    }
+
+    private static class Load {
+
+        private final AnalyticsKey key;
+
+        private volatile boolean invalidated;
+
+        private Load(AnalyticsKey key) {
+            this.key = key;
+        }
+
+    }
+
+    private record EntryExpiry(long liveNanos) implements Expiry<AnalyticsKey, Entry> {
+
+        @Override
+        public long expireAfterCreate(AnalyticsKey key, Entry entry, long currentTime) {
+            return entry.live() ? liveNanos : Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(AnalyticsKey key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(AnalyticsKey key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
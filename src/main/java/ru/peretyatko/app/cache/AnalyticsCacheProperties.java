@@ -0,0 +1,24 @@
+package ru.peretyatko.app.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.analytics-cache")
+public class AnalyticsCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration liveTtl = Duration.ofSeconds(30);
+
+    private Duration staleWindow = Duration.ofMinutes(5);
+
+    private int refreshThreads = 2;
+
+    private int refreshQueueSize = 100;
+
+}
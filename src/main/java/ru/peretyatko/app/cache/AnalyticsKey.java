@@ -0,0 +1,33 @@
+package ru.peretyatko.app.cache;
+
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.pagination.DateKeyset;
+
+import java.time.LocalDateTime;
+
+public record AnalyticsKey(Kind kind, LocalDateTime start, LocalDateTime end, Integer param, PaymentType paymentType) {
+
+    public enum Kind {
+        BEST_SELLER,
+        SUM_LESS_THEN,
+        TOP_SELLERS
+    }
+
+    public static AnalyticsKey of(Kind kind, LocalDateTime start, LocalDateTime end, Integer param) {
+        return of(kind, start, end, param, null);
+    }
+
+    public static AnalyticsKey of(Kind kind, LocalDateTime start, LocalDateTime end, Integer param, PaymentType paymentType) {
+        return new AnalyticsKey(kind, start == null ? DateKeyset.ORIGIN : start, end == null ? DateKeyset.HORIZON : end,
+                param, paymentType);
+    }
+
+    public boolean covers(LocalDateTime date) {
+        return !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    public boolean endsBefore(LocalDateTime date) {
+        return end.isBefore(date);
+    }
+
+}
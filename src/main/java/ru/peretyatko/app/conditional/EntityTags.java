@@ -0,0 +1,45 @@
+package ru.peretyatko.app.conditional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import ru.peretyatko.app.dto.EntityVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Component
+public class EntityTags {
+
+    private static final long UNKNOWN = -1;
+
+    public String tag(EntityVersion version) {
+        return "\"" + version.getId() + "." + version.getVersion() + "\"";
+    }
+
+    public String tag(List<EntityVersion> versions) {
+        StringBuilder raw = new StringBuilder();
+        for (EntityVersion version : versions) {
+            raw.append(version.getId()).append('.').append(version.getVersion()).append(';');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(raw.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    public long lastModified(EntityVersion version) {
+        return toEpochMilli(version.getUpdatedAt());
+    }
+
+    public long lastModified(List<EntityVersion> versions) {
+        return versions.stream()
+                .map(EntityVersion::getUpdatedAt)
+                .max(LocalDateTime::compareTo)
+                .map(EntityTags::toEpochMilli)
+                .orElse(UNKNOWN);
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+}
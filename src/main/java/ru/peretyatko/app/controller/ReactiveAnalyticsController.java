@@ -0,0 +1,42 @@
+package ru.peretyatko.app.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.service.ReactiveAnalyticsService;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+public class ReactiveAnalyticsController {
+
+    private final ReactiveAnalyticsService reactiveAnalyticsService;
+
+    @GetMapping("/sellers/best")
+    public Mono<SellerResponse> getBestSeller(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return reactiveAnalyticsService.getBestSeller(start, end);
+    }
+
+    @GetMapping(value = "/sellers/sumLessThen/{sum}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SellerResponse> getSellersSumLessThen(@PathVariable int sum,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return reactiveAnalyticsService.getSellersSumLessThen(sum, start, end);
+    }
+
+    @GetMapping(value = "/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionResponse> getTransactions(@RequestParam(required = false) Long sellerId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return reactiveAnalyticsService.getTransactions(sellerId, start, end);
+    }
+
+}
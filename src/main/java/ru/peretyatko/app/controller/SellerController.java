@@ -1,14 +1,34 @@
 package ru.peretyatko.app.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.peretyatko.app.conditional.EntityTags;
+import ru.peretyatko.app.dto.AnalyticsCacheStatsResponse;
+import ru.peretyatko.app.dto.PageResponse;
+import ru.peretyatko.app.dto.seller.RevenueBucket;
+import ru.peretyatko.app.dto.seller.SellerBestWindowResponse;
 import ru.peretyatko.app.dto.seller.SellerPatchRequest;
 import ru.peretyatko.app.dto.seller.SellerPostRequest;
+import ru.peretyatko.app.dto.seller.SellerPurgeResponse;
+import ru.peretyatko.app.dto.seller.SellerRankResponse;
 import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.seller.SellerRevenueResponse;
+import ru.peretyatko.app.dto.transaction.ExportFormat;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.revenue.BestWindowService;
+import ru.peretyatko.app.revenue.RevenueWindowService;
+import ru.peretyatko.app.service.RevenueSeriesService;
 import ru.peretyatko.app.service.SellerService;
 import ru.peretyatko.app.dto.RangeDate;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import ru.peretyatko.app.validator.seller.SellerValidator;
@@ -23,20 +43,36 @@ public class SellerController {
 
     private final SellerValidator sellerValidator;
 
+    private final RevenueWindowService revenueWindowService;
+
+    private final RevenueSeriesService revenueSeriesService;
+
+    private final BestWindowService bestWindowService;
+
+    private final EntityTags entityTags;
+
 
     @GetMapping("/{id}")
-    public SellerResponse getSeller(@PathVariable long id) {
-        return sellerService.getSeller(id);
+    public SellerResponse getSeller(@PathVariable long id, WebRequest request) {
+        return sellerService.getSellerIfModified(id, version ->
+                request.checkNotModified(entityTags.tag(version), entityTags.lastModified(version))).orElse(null);
     }
 
     @GetMapping("")
-    public List<SellerResponse> getSellers() {
-        return sellerService.getSellers();
+    public PageResponse<SellerResponse> getSellers(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   WebRequest request) {
+        return sellerService.getSellersIfModified(cursor, limit, versions ->
+                request.checkNotModified(entityTags.tag(versions), entityTags.lastModified(versions))).orElse(null);
     }
 
     @GetMapping("/{id}/transactions")
-    public List<TransactionResponse> getTransactionsOfSeller(@PathVariable long id) {
-        return sellerService.getTransactionsOfSeller(id);
+    public PageResponse<TransactionResponse> getTransactionsOfSeller(@PathVariable long id,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limit) {
+        return sellerService.getTransactionsOfSeller(id, start, end, cursor, limit);
     }
 
     @PostMapping("")
@@ -55,8 +91,19 @@ public class SellerController {
     }
 
     @DeleteMapping("/{id}")
-    public void deleteSeller(@PathVariable long id) {
-        sellerService.deleteSeller(id);
+    public ResponseEntity<SellerPurgeResponse> deleteSeller(@PathVariable long id,
+                                                            @RequestParam(defaultValue = "false") boolean async) {
+        if (!async) {
+            sellerService.deleteSeller(id);
+            return ResponseEntity.ok().build();
+        }
+        SellerPurgeResponse purge = sellerService.deleteSellerAsync(id);
+        return ResponseEntity.accepted().location(URI.create("/api/sellers/purges/" + purge.getId())).body(purge);
+    }
+
+    @GetMapping("/purges/{purgeId}")
+    public SellerPurgeResponse getPurge(@PathVariable String purgeId) {
+        return sellerService.getPurge(purgeId);
     }
 
 
@@ -71,6 +118,49 @@ public class SellerController {
         return sellerService.getSellersSumLessThen(sum, rangeDate);
     }
 
-}
+    @GetMapping("/ranking")
+    public PageResponse<SellerRankResponse> getTopSellers(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                                          @RequestParam(required = false) PaymentType paymentType,
+                                                          @RequestParam(required = false) Integer top,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        return sellerService.getTopSellers(start, end, paymentType, top, cursor, limit);
+    }
+
+    @GetMapping("/analytics/cache")
+    public AnalyticsCacheStatsResponse getAnalyticsCacheStats() {
+        return sellerService.getAnalyticsCacheStats();
+    }
 
+    @GetMapping("/revenue/live")
+    public List<SellerRevenueResponse> getTopSellersLive(@RequestParam(defaultValue = "5") int minutes,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        return revenueWindowService.getTopSellers(minutes, limit);
+    }
 
+    @GetMapping("/revenue/series")
+    public ResponseEntity<StreamingResponseBody> getRevenueSeries(@RequestParam(defaultValue = "DAY") RevenueBucket bucket,
+                                                                  @RequestParam(required = false) Long sellerId,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        StreamingResponseBody body = revenueSeriesService.series(bucket, sellerId, start, end);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getMediaType()))
+                .body(body);
+    }
+
+    @GetMapping("/{id}/revenue/live")
+    public List<SellerRevenueResponse> getSellerRevenueLive(@PathVariable long id) {
+        return revenueWindowService.getSellerRevenue(id);
+    }
+
+    @GetMapping("/{id}/revenue/best-window")
+    public SellerBestWindowResponse getBestWindow(@PathVariable long id,
+                                                  @RequestParam(defaultValue = "7") int days,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return bestWindowService.findBestWindow(id, days, start, end);
+    }
+
+}
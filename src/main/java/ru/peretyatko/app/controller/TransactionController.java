@@ -2,14 +2,27 @@ package ru.peretyatko.app.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.peretyatko.app.conditional.EntityTags;
+import ru.peretyatko.app.dto.PageResponse;
+import ru.peretyatko.app.dto.transaction.ExportFormat;
+import ru.peretyatko.app.dto.transaction.TransactionBatchResponse;
 import ru.peretyatko.app.dto.transaction.TransactionPatchRequest;
 import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.ingestion.WriteBehindIngestion;
+import ru.peretyatko.app.service.TransactionExportService;
 import ru.peretyatko.app.service.TransactionService;
 import ru.peretyatko.app.validator.transaction.TransactionValidator;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,23 +34,51 @@ public class TransactionController {
 
     private final TransactionValidator transactionValidator;
 
+    private final TransactionExportService transactionExportService;
+
+    private final WriteBehindIngestion writeBehindIngestion;
+
+    private final EntityTags entityTags;
+
     @GetMapping("/{id}")
-    public TransactionResponse getTransaction(@PathVariable long id) {
-        return transactionService.getTransaction(id);
+    public TransactionResponse getTransaction(@PathVariable long id, WebRequest request) {
+        return transactionService.getTransactionIfModified(id, version ->
+                request.checkNotModified(entityTags.tag(version), entityTags.lastModified(version))).orElse(null);
     }
 
     @GetMapping("")
-    public List<TransactionResponse> getTransactions() {
-        return transactionService.getTransactions();
+    public PageResponse<TransactionResponse> getTransactions(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        return transactionService.getTransactions(cursor, limit);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                                    @RequestParam(required = false) Long sellerId,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        StreamingResponseBody body = transactionExportService.export(format, sellerId, start, end);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions." + format.getExtension())
+                .body(body);
     }
 
     @PostMapping("")
     public TransactionResponse createTransaction(@Valid @RequestBody TransactionPostRequest transactionPostRequest,
                                                  BindingResult bindingResult) {
         transactionValidator.validate(transactionPostRequest, bindingResult);
+        if (writeBehindIngestion.isEnabled()) {
+            return writeBehindIngestion.submit(transactionPostRequest);
+        }
         return transactionService.createTransaction(transactionPostRequest);
     }
 
+    @PostMapping("/batch")
+    public TransactionBatchResponse createTransactions(@RequestBody List<TransactionPostRequest> transactionPostRequests) {
+        return transactionService.createTransactions(transactionPostRequests);
+    }
+
     @PatchMapping("/{id}")
     public TransactionResponse updateTransaction(@PathVariable long id,
                                                 @Valid @RequestBody TransactionPatchRequest transactionPatchRequest,
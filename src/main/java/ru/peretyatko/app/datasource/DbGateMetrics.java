@@ -0,0 +1,39 @@
+package ru.peretyatko.app.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class DbGateMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (DataSource target : targets()) {
+            if (target instanceof GatedDataSource gatedDataSource) {
+                Gauge.builder("crm.db.gate.available", gatedDataSource, GatedDataSource::getAvailablePermits)
+                        .tag("pool", gatedDataSource.getName())
+                        .register(registry);
+                Gauge.builder("crm.db.gate.queued", gatedDataSource, GatedDataSource::getQueueLength)
+                        .tag("pool", gatedDataSource.getName())
+                        .register(registry);
+            }
+        }
+    }
+
+    private List<DataSource> targets() {
+        if (dataSource instanceof ReplicaRoutingDataSource routingDataSource) {
+            return routingDataSource.getTargets();
+        }
+        return List.of(dataSource);
+    }
+
+}
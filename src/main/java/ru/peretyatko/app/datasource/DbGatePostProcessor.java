@@ -0,0 +1,38 @@
+package ru.peretyatko.app.datasource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class DbGatePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    static final String PRIMARY = "primary";
+
+    private DbGateProperties properties;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        properties = Binder.get(environment).bind("app.db-gate", DbGateProperties.class).orElseGet(DbGateProperties::new);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof GatedDataSource) && !(bean instanceof ReplicaRoutingDataSource)) {
+            return gate(PRIMARY, dataSource, properties);
+        }
+        return bean;
+    }
+
+    static DataSource gate(String name, DataSource dataSource, DbGateProperties properties) {
+        if (!properties.isEnabled()) {
+            return dataSource;
+        }
+        return new GatedDataSource(name, dataSource, properties.getMaxConcurrency(), properties.getAcquireTimeout());
+    }
+
+}
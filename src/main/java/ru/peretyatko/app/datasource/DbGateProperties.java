@@ -0,0 +1,20 @@
+package ru.peretyatko.app.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.db-gate")
+public class DbGateProperties {
+
+    private boolean enabled = true;
+
+    private int maxConcurrency = 10;
+
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,11 @@
+package ru.peretyatko.app.datasource;
+
+import java.sql.SQLTransientConnectionException;
+
+public class DbGateTimeoutException extends SQLTransientConnectionException {
+
+    public DbGateTimeoutException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,58 @@
+package ru.peretyatko.app.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReplicaProperties replicaProperties;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(ReplicaProperties replicaProperties) {
+        this.replicaProperties = replicaProperties;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(replicaProperties.getReadYourWritesWindow())
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !replicaProperties.isEnabled()
+                || replicaProperties.getReadYourWritesWindow().isZero()
+                || request.getHeader(replicaProperties.getClientHeader()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientId = request.getHeader(replicaProperties.getClientHeader());
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                recentWriters.put(clientId, Boolean.TRUE);
+            }
+            return;
+        }
+        ReplicaRoutingDataSource.setPrimaryPinned(recentWriters.getIfPresent(clientId) != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryPinned(false);
+        }
+    }
+
+}
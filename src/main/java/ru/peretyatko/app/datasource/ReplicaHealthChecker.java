@@ -0,0 +1,46 @@
+package ru.peretyatko.app.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Component
+@RequiredArgsConstructor
+public class ReplicaHealthChecker implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    private final ReplicaProperties replicaProperties;
+
+    @Scheduled(fixedDelayString = "${app.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        ReplicaRoutingDataSource routingDataSource = routingDataSource();
+        if (routingDataSource != null) {
+            routingDataSource.checkHealth(replicaProperties.getHealthCheckTimeout());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ReplicaRoutingDataSource routingDataSource = routingDataSource();
+        if (routingDataSource != null) {
+            Gauge.builder("crm.db.replicas", routingDataSource, ReplicaRoutingDataSource::getReplicaCount).register(registry);
+            Gauge.builder("crm.db.replicas.healthy", routingDataSource, ReplicaRoutingDataSource::getHealthyReplicaCount).register(registry);
+        }
+    }
+
+    private ReplicaRoutingDataSource routingDataSource() {
+        try {
+            return dataSource.isWrapperFor(ReplicaRoutingDataSource.class) ? dataSource.unwrap(ReplicaRoutingDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+}
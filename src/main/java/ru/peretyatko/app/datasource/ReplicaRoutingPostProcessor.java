@@ -0,0 +1,70 @@
+package ru.peretyatko.app.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, EnvironmentAware, Ordered, DisposableBean {
+
+    private final List<ReplicaRoutingDataSource> routingDataSources = new ArrayList<>();
+
+    private ReplicaProperties properties;
+
+    private DbGateProperties gateProperties;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        properties = Binder.get(environment).bind("app.replicas", ReplicaProperties.class).orElseGet(ReplicaProperties::new);
+        gateProperties = Binder.get(environment).bind("app.db-gate", DbGateProperties.class).orElseGet(DbGateProperties::new);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource primary && properties.isEnabled() && !properties.getNodes().isEmpty()) {
+            List<DataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < properties.getNodes().size(); ++i) {
+                replicas.add(DbGatePostProcessor.gate("replica-" + i, createReplica(primary, properties.getNodes().get(i), i), gateProperties));
+            }
+            ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                    DbGatePostProcessor.gate(DbGatePostProcessor.PRIMARY, primary, gateProperties), replicas);
+            routingDataSources.add(routingDataSource);
+            return routingDataSource;
+        }
+        return bean;
+    }
+
+    @Override
+    public void destroy() {
+        routingDataSources.forEach(ReplicaRoutingDataSource::close);
+    }
+
+    private HikariDataSource createReplica(HikariDataSource primary, ReplicaProperties.Node node, int index) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName((primary.getPoolName() == null ? "HikariPool" : primary.getPoolName()) + "-replica-" + index);
+        config.setJdbcUrl(node.getUrl());
+        config.setUsername(node.getUsername() == null ? primary.getUsername() : node.getUsername());
+        config.setPassword(node.getPassword() == null ? primary.getPassword() : node.getPassword());
+        config.setMaximumPoolSize(node.getMaximumPoolSize());
+        config.setConnectionTimeout(node.getConnectionTimeout().toMillis());
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+}
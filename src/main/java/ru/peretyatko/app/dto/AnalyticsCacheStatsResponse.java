@@ -0,0 +1,24 @@
+package ru.peretyatko.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCacheStatsResponse {
+    private long hits;
+
+    private long staleHits;
+
+    private long misses;
+
+    private long refreshes;
+
+    private long invalidations;
+
+    private long size;
+}
@@ -0,0 +1,21 @@
+package ru.peretyatko.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityVersion {
+    private long id;
+
+    private long version;
+
+    private LocalDateTime updatedAt;
+
+}
@@ -2,6 +2,8 @@ package ru.peretyatko.app.dto;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import ru.peretyatko.app.error.exception.ServiceException;
 
 import java.time.LocalDateTime;
 
@@ -18,4 +20,10 @@ public class RangeDate {
         this.end = end;
     }
 
+    public static void requireOrdered(LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Start must be before end.");
+        }
+    }
+
 }
@@ -0,0 +1,22 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+@AllArgsConstructor
+public enum RevenueBucket {
+    HOUR("hour", "1 hour", Duration.ofHours(1), false),
+    DAY("day", "1 day", Duration.ofDays(1), true),
+    WEEK("week", "1 week", Duration.ofDays(7), true);
+
+    private final String unit;
+
+    private final String step;
+
+    private final Duration duration;
+
+    private final boolean rollup;
+}
@@ -0,0 +1,25 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenuePointResponse {
+
+    private Long sellerId;
+
+    private LocalDateTime bucketStart;
+
+    private BigDecimal amount;
+
+    private long transactionCount;
+
+}
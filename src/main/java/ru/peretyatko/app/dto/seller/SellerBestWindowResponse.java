@@ -0,0 +1,29 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerBestWindowResponse {
+
+    private long sellerId;
+
+    private int days;
+
+    private LocalDateTime windowStart;
+
+    private LocalDateTime windowEnd;
+
+    private BigDecimal amount;
+
+    private long transactionCount;
+
+}
@@ -0,0 +1,30 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerPurgeResponse {
+    private String id;
+
+    private long sellerId;
+
+    private SellerPurgeStatus status;
+
+    private long totalTransactions;
+
+    private long deletedTransactions;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String message;
+}
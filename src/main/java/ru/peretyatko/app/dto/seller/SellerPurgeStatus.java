@@ -0,0 +1,7 @@
+package ru.peretyatko.app.dto.seller;
+
+public enum SellerPurgeStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,26 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerRankResponse {
+
+    private long rank;
+
+    private long sellerId;
+
+    private String name;
+
+    private BigDecimal totalAmount;
+
+    private long transactionCount;
+
+}
@@ -0,0 +1,20 @@
+package ru.peretyatko.app.dto.seller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerRevenueResponse {
+    private long sellerId;
+
+    private int windowMinutes;
+
+    private double amount;
+
+    private long count;
+}
@@ -0,0 +1,20 @@
+package ru.peretyatko.app.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchError {
+    private int index;
+
+    private String message;
+
+    private Set<String> fieldsWithError;
+}
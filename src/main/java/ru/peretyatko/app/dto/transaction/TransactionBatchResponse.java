@@ -0,0 +1,18 @@
+package ru.peretyatko.app.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionBatchResponse {
+    private List<TransactionResponse> created;
+
+    private List<TransactionBatchError> errors;
+}
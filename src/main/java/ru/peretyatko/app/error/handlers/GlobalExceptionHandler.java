@@ -1,10 +1,13 @@
 package ru.peretyatko.app.error.handlers;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.peretyatko.app.datasource.DbGateTimeoutException;
 import ru.peretyatko.app.error.exception.ServiceException;
 import ru.peretyatko.app.error.exception.ValidationException;
 import ru.peretyatko.app.error.response.ServiceErrorResponse;
@@ -16,6 +19,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     private ResponseEntity<ServiceErrorResponse> handleAllExceptions(Exception e) {
+        if (NestedExceptionUtils.getMostSpecificCause(e) instanceof DbGateTimeoutException timeout) {
+            ServiceErrorResponse serviceErrorResponse = new ServiceErrorResponse(503, timeout.getMessage());
+            return new ResponseEntity<>(serviceErrorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        }
         ServiceErrorResponse serviceErrorResponse = new ServiceErrorResponse(500, e.getMessage());
         return new ResponseEntity<>(serviceErrorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -26,6 +33,12 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(serviceErrorResponse, HttpStatusCode.valueOf(e.getCode()));
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    private ResponseEntity<ServiceErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException e) {
+        ServiceErrorResponse serviceErrorResponse = new ServiceErrorResponse(409, "Entity was modified concurrently.");
+        return new ResponseEntity<>(serviceErrorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ValidationErrorResponse> handleMyExceptions(ValidationException ex) {
         ValidationErrorResponse validationErrorResponse = new ValidationErrorResponse(ex.getMessage(), ex.getFieldsWithError());
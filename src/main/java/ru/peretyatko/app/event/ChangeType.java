@@ -0,0 +1,7 @@
+package ru.peretyatko.app.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,14 @@
+package ru.peretyatko.app.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SellerChangedEvent {
+
+    private ChangeType type;
+
+    private long sellerId;
+
+}
@@ -0,0 +1,59 @@
+package ru.peretyatko.app.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TransactionChange {
+
+    private ChangeType type;
+
+    private long transactionId;
+
+    private long sellerId;
+
+    private PaymentType paymentType;
+
+    private double amount;
+
+    private PaymentType previousPaymentType;
+
+    private double previousAmount;
+
+    private LocalDateTime transactionDate;
+
+    public static TransactionChange created(Transaction transaction) {
+        return new TransactionChange(ChangeType.CREATED, transaction.getId(), transaction.getSeller().getId(),
+                transaction.getPaymentType(), transaction.getAmount(), null, 0, transaction.getTransactionDate());
+    }
+
+    public static TransactionChange updated(Transaction transaction, PaymentType previousPaymentType, double previousAmount) {
+        return new TransactionChange(ChangeType.UPDATED, transaction.getId(), transaction.getSeller().getId(),
+                transaction.getPaymentType(), transaction.getAmount(), previousPaymentType, previousAmount,
+                transaction.getTransactionDate());
+    }
+
+    public static TransactionChange deleted(Transaction transaction) {
+        return new TransactionChange(ChangeType.DELETED, transaction.getId(), transaction.getSeller().getId(),
+                null, 0, transaction.getPaymentType(), transaction.getAmount(), transaction.getTransactionDate());
+    }
+
+    public BigDecimal getAmountDelta() {
+        return BigDecimal.valueOf(amount).subtract(BigDecimal.valueOf(previousAmount));
+    }
+
+    public long getCountDelta() {
+        return switch (type) {
+            case CREATED -> 1;
+            case UPDATED -> 0;
+            case DELETED -> -1;
+        };
+    }
+
+}
@@ -0,0 +1,14 @@
+package ru.peretyatko.app.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TransactionsChangedEvent {
+
+    private List<TransactionChange> changes;
+
+}
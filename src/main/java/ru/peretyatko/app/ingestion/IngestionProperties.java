@@ -0,0 +1,42 @@
+package ru.peretyatko.app.ingestion;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.ingestion")
+public class IngestionProperties {
+
+    private Batch batch = new Batch();
+
+    private WriteBehind writeBehind = new WriteBehind();
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private int maxSize = 5000;
+
+        private int flushSize = 500;
+
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        private boolean enabled = false;
+
+        private int bufferSize = 8192;
+
+        private int maxGroupSize = 500;
+
+        private Duration submitTimeout = Duration.ofSeconds(5);
+
+    }
+
+}
@@ -0,0 +1,328 @@
+package ru.peretyatko.app.ingestion;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+import ru.peretyatko.app.repository.Constraints;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class WriteBehindIngestion implements SmartLifecycle, MeterBinder {
+
+    public final static String SQL_NEXT_IDS = "SELECT nextval('transactions_id_seq') FROM generate_series(1, ?)";
+
+    public final static String SQL_INSERT_GROUP =
+            """
+            INSERT INTO transactions (id, seller_id, amount, payment_type, transaction_date)
+            SELECT *
+            FROM unnest(CAST(? AS BIGINT[]), CAST(? AS BIGINT[]), CAST(? AS DECIMAL[]),
+                        CAST(? AS VARCHAR[]), CAST(? AS TIMESTAMP[]))
+            """;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final int ID_BLOCK_SIZE = 50;
+
+    private final IngestionProperties.WriteBehind properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionOperations transactions;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final SellerIdRegistry sellerIdRegistry;
+
+    private final IngestionRingBuffer<PendingTransaction> buffer;
+
+    private final ArrayDeque<Long> idPool = new ArrayDeque<>();
+
+    private final LongAdder groups = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean running;
+
+    private volatile Thread writer;
+
+    @Autowired
+    public WriteBehindIngestion(IngestionProperties ingestionProperties, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                SellerIdRegistry sellerIdRegistry) {
+        this(ingestionProperties.getWriteBehind(), jdbcTemplate, new TransactionTemplate(transactionManager), eventPublisher, sellerIdRegistry);
+    }
+
+    WriteBehindIngestion(IngestionProperties.WriteBehind properties, JdbcTemplate jdbcTemplate, TransactionOperations transactions,
+                         ApplicationEventPublisher eventPublisher, SellerIdRegistry sellerIdRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = transactions;
+        this.eventPublisher = eventPublisher;
+        this.sellerIdRegistry = sellerIdRegistry;
+        this.buffer = new IngestionRingBuffer<>(properties.getBufferSize());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public TransactionResponse submit(TransactionPostRequest transactionPostRequest) {
+        PendingTransaction pending = enqueue(transactionPostRequest);
+        try {
+            return pending.result().get(properties.getSubmitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(pending, "Ingestion timed out.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(pending, "Ingestion was interrupted.");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    CompletableFuture<TransactionResponse> submitAsync(TransactionPostRequest transactionPostRequest) {
+        return enqueue(transactionPostRequest).result();
+    }
+
+    private PendingTransaction enqueue(TransactionPostRequest transactionPostRequest) {
+        if (!sellerIdRegistry.contains(transactionPostRequest.getSellerId())) {
+            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
+        }
+        PendingTransaction pending = new PendingTransaction(transactionPostRequest, LocalDateTime.now(),
+                new CompletableFuture<>(), new AtomicBoolean());
+        if (!running) {
+            rejected.increment();
+            throw new ServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Ingestion is shutting down.");
+        }
+        if (!buffer.offer(pending)) {
+            rejected.increment();
+            throw new ServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Ingestion buffer is full.");
+        }
+        if (!running) {
+            cancel(pending, "Ingestion is shutting down.");
+        }
+        LockSupport.unpark(writer);
+        return pending;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        open();
+        writer = Thread.ofPlatform().name("write-behind-ingestion").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = writer;
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingTransaction> leftovers = new ArrayList<>();
+        buffer.drainTo(leftovers, Integer.MAX_VALUE);
+        leftovers.forEach(pending -> cancel(pending, "Ingestion is shutting down."));
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("crm.ingestion.buffer.size", buffer, IngestionRingBuffer::size).register(registry);
+        FunctionCounter.builder("crm.ingestion.groups", groups, LongAdder::sum).register(registry);
+        FunctionCounter.builder("crm.ingestion.rows", rows, LongAdder::sum).register(registry);
+        FunctionCounter.builder("crm.ingestion.rejected", rejected, LongAdder::sum).register(registry);
+    }
+
+    void open() {
+        running = true;
+    }
+
+    int writeNextGroup() {
+        List<PendingTransaction> group = new ArrayList<>(properties.getMaxGroupSize());
+        int drained = buffer.drainTo(group, properties.getMaxGroupSize());
+        group.removeIf(pending -> !pending.claim());
+        if (group.isEmpty()) {
+            return drained;
+        }
+        try {
+            write(group);
+        } catch (Throwable e) {
+            log.error("Write-behind group of {} transactions failed", group.size(), e);
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+        return drained;
+    }
+
+    private void run() {
+        while (running || buffer.size() > 0) {
+            if (writeNextGroup() == 0 && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(List<PendingTransaction> group) {
+        List<TransactionResponse> created;
+        try {
+            created = transactions.execute(status -> insert(group));
+        } catch (RuntimeException e) {
+            log.warn("Write-behind group of {} transactions failed, retrying one by one", group.size(), e);
+            group.forEach(this::writeAlone);
+            return;
+        }
+        groups.increment();
+        rows.add(group.size());
+        for (int i = 0; i < group.size(); ++i) {
+            group.get(i).result().complete(created.get(i));
+        }
+    }
+
+    private void writeAlone(PendingTransaction pending) {
+        try {
+            TransactionResponse created = transactions.execute(status -> insert(List.of(pending))).getFirst();
+            groups.increment();
+            rows.increment();
+            pending.result().complete(created);
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.isForeignKeyViolation(e, Constraints.TRANSACTIONS_SELLER_FKEY)) {
+                pending.result().completeExceptionally(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
+            } else {
+                pending.result().completeExceptionally(e);
+            }
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private List<TransactionResponse> insert(List<PendingTransaction> group) {
+        List<Long> ids = nextIds(group.size());
+        Long[] idColumn = new Long[group.size()];
+        Long[] sellerColumn = new Long[group.size()];
+        BigDecimal[] amountColumn = new BigDecimal[group.size()];
+        String[] paymentTypeColumn = new String[group.size()];
+        Timestamp[] dateColumn = new Timestamp[group.size()];
+        List<TransactionResponse> created = new ArrayList<>(group.size());
+        List<TransactionChange> changes = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); ++i) {
+            TransactionPostRequest request = group.get(i).request();
+            LocalDateTime transactionDate = group.get(i).transactionDate();
+            idColumn[i] = ids.get(i);
+            sellerColumn[i] = request.getSellerId();
+            amountColumn[i] = BigDecimal.valueOf(request.getAmount());
+            paymentTypeColumn[i] = request.getPaymentType().name();
+            dateColumn[i] = Timestamp.valueOf(transactionDate);
+            created.add(new TransactionResponse(ids.get(i), request.getSellerId(), request.getAmount(),
+                    request.getPaymentType(), transactionDate));
+            changes.add(new TransactionChange(ChangeType.CREATED, ids.get(i), request.getSellerId(), request.getPaymentType(),
+                    request.getAmount(), null, 0, transactionDate));
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL_INSERT_GROUP);
+            statement.setArray(1, connection.createArrayOf("bigint", idColumn));
+            statement.setArray(2, connection.createArrayOf("bigint", sellerColumn));
+            statement.setArray(3, connection.createArrayOf("numeric", amountColumn));
+            statement.setArray(4, connection.createArrayOf("varchar", paymentTypeColumn));
+            statement.setArray(5, connection.createArrayOf("timestamp", dateColumn));
+            return statement;
+        });
+        eventPublisher.publishEvent(new TransactionsChangedEvent(changes));
+        return created;
+    }
+
+    private List<Long> nextIds(int count) {
+        while (idPool.size() < count) {
+            int blocks = (count - idPool.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            for (long high : jdbcTemplate.queryForList(SQL_NEXT_IDS, Long.class, blocks)) {
+                for (long id = Math.max(1, high - ID_BLOCK_SIZE + 1); id <= high; ++id) {
+                    idPool.add(id);
+                }
+            }
+        }
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            ids.add(idPool.poll());
+        }
+        return ids;
+    }
+
+    private static void cancel(PendingTransaction pending, String message) {
+        if (pending.claim()) {
+            pending.result().completeExceptionally(new ServiceException(HttpStatus.SERVICE_UNAVAILABLE, message));
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    record PendingTransaction(TransactionPostRequest request, LocalDateTime transactionDate,
+                              CompletableFuture<TransactionResponse> result, AtomicBoolean claimed) {
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+    }
+
+}
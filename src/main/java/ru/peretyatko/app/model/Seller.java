@@ -6,8 +6,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import ru.peretyatko.app.dto.seller.SellerRankResponse;
+import ru.peretyatko.app.dto.seller.SellerResponse;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,8 +22,25 @@ import java.util.List;
 @NoArgsConstructor
 @Entity
 @Table(name = "sellers")
+@SqlResultSetMapping(name = Seller.SELLER_RESPONSE_MAPPING, classes = @ConstructorResult(targetClass = SellerResponse.class, columns = {
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "name", type = String.class),
+        @ColumnResult(name = "contact_info", type = String.class),
+        @ColumnResult(name = "registration_date", type = LocalDateTime.class)
+}))
+@SqlResultSetMapping(name = Seller.SELLER_RANK_MAPPING, classes = @ConstructorResult(targetClass = SellerRankResponse.class, columns = {
+        @ColumnResult(name = "rank", type = Long.class),
+        @ColumnResult(name = "id", type = Long.class),
+        @ColumnResult(name = "name", type = String.class),
+        @ColumnResult(name = "total_amount", type = BigDecimal.class),
+        @ColumnResult(name = "transaction_count", type = Long.class)
+}))
 public class Seller {
 
+    public final static String SELLER_RESPONSE_MAPPING = "SellerResponse";
+
+    public final static String SELLER_RANK_MAPPING = "SellerRankResponse";
+
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,8 +56,28 @@ public class Seller {
     private LocalDateTime registrationDate;
 
     @JsonManagedReference
-    @OneToMany(mappedBy = "seller", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "seller")
     private List<Transaction> transactions;
 
+    @Version
+    @Column(name = "version")
+    private long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public Seller(long id, String name, String contactInfo, LocalDateTime registrationDate, List<Transaction> transactions) {
+        this.id = id;
+        this.name = name;
+        this.contactInfo = contactInfo;
+        this.registrationDate = registrationDate;
+        this.transactions = transactions;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void touch() {
+        updatedAt = LocalDateTime.now(ZoneOffset.UTC);
+    }
 
 }
@@ -0,0 +1,49 @@
+package ru.peretyatko.app.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.file", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, OutboxProperties outboxProperties) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(outboxProperties.getFile().getPath());
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            OutputStream outputStream = Channels.newOutputStream(channel);
+            for (OutboxEvent event : events) {
+                outputStream.write(objectMapper.writeValueAsBytes(event));
+                outputStream.write('\n');
+            }
+            channel.force(false);
+        }
+    }
+
+}
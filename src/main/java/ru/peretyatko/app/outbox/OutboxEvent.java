@@ -0,0 +1,39 @@
+package ru.peretyatko.app.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    private long id;
+
+    private ChangeType type;
+
+    private long transactionId;
+
+    private long sellerId;
+
+    private PaymentType paymentType;
+
+    private BigDecimal amount;
+
+    private PaymentType previousPaymentType;
+
+    private BigDecimal previousAmount;
+
+    private LocalDateTime transactionDate;
+
+    private LocalDateTime createdAt;
+
+}
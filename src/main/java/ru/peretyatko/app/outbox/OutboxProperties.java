@@ -0,0 +1,32 @@
+package ru.peretyatko.app.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = true;
+
+    private int batchSize = 500;
+
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    private File file = new File();
+
+    @Getter
+    @Setter
+    public static class File {
+
+        private boolean enabled = true;
+
+        private String path = "outbox/transactions.ndjson";
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package ru.peretyatko.app.outbox;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class OutboxRelay implements MeterBinder {
+
+    public final static String SQL_CLAIM_BATCH =
+            """
+            DELETE FROM transaction_outbox
+            WHERE id IN (
+                SELECT id
+                FROM transaction_outbox
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, change_type, transaction_id, seller_id, payment_type, amount,
+                      previous_payment_type, previous_amount, transaction_date, created_at
+            """;
+
+    public final static String SQL_BACKLOG =
+            """
+            SELECT COUNT(*) AS pending,
+                   COALESCE(EXTRACT(EPOCH FROM CAST(clock_timestamp() AS TIMESTAMP) - MIN(created_at)), 0) AS lag
+            FROM transaction_outbox
+            """;
+
+    private final OutboxProperties outboxProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionOperations transactions;
+
+    private final List<OutboxSink> sinks;
+
+    private final LongAdder delivered = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Autowired
+    public OutboxRelay(OutboxProperties outboxProperties, JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager, List<OutboxSink> sinks) {
+        this(outboxProperties, jdbcTemplate, new TransactionTemplate(transactionManager), sinks);
+    }
+
+    OutboxRelay(OutboxProperties outboxProperties, JdbcTemplate jdbcTemplate, TransactionOperations transactions,
+                List<OutboxSink> sinks) {
+        this.outboxProperties = outboxProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = transactions;
+        this.sinks = sinks;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:1s}")
+    public void relay() {
+        if (!outboxProperties.isEnabled() || sinks.isEmpty()) {
+            return;
+        }
+        try {
+            Integer claimed;
+            do {
+                claimed = transactions.execute(status -> deliverBatch());
+            } while (claimed != null && claimed == outboxProperties.getBatchSize());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Outbox delivery failed, the batch will be retried", e);
+        }
+        refreshBacklog();
+    }
+
+    long getDelivered() {
+        return delivered.sum();
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("crm.outbox.delivered", delivered, LongAdder::sum).register(registry);
+        FunctionCounter.builder("crm.outbox.failures", failures, LongAdder::sum).register(registry);
+        Gauge.builder("crm.outbox.pending", pending, AtomicLong::get).register(registry);
+        Gauge.builder("crm.outbox.lag", lagMillis, lag -> lag.get() / 1000.0).baseUnit("seconds").register(registry);
+    }
+
+    private int deliverBatch() {
+        List<OutboxEvent> events = new ArrayList<>(jdbcTemplate.query(SQL_CLAIM_BATCH, this::toEvent, outboxProperties.getBatchSize()));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        events.sort(Comparator.comparingLong(OutboxEvent::getId));
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.deliver(events);
+            } catch (Exception e) {
+                throw new IllegalStateException("Sink " + sink.getName() + " rejected " + events.size() + " outbox events", e);
+            }
+        }
+        delivered.add(events.size());
+        return events.size();
+    }
+
+    private void refreshBacklog() {
+        try {
+            jdbcTemplate.query(SQL_BACKLOG, (RowCallbackHandler) rs -> {
+                pending.set(rs.getLong("pending"));
+                lagMillis.set(Math.max(0, Math.round(rs.getDouble("lag") * 1000)));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to read outbox backlog", e);
+        }
+    }
+
+    private OutboxEvent toEvent(ResultSet rs, int rowNum) throws SQLException {
+        String paymentType = rs.getString("payment_type");
+        String previousPaymentType = rs.getString("previous_payment_type");
+        return new OutboxEvent(rs.getLong("id"),
+                ChangeType.valueOf(rs.getString("change_type")),
+                rs.getLong("transaction_id"),
+                rs.getLong("seller_id"),
+                paymentType == null ? null : PaymentType.valueOf(paymentType),
+                rs.getBigDecimal("amount"),
+                previousPaymentType == null ? null : PaymentType.valueOf(previousPaymentType),
+                rs.getBigDecimal("previous_amount"),
+                rs.getObject("transaction_date", LocalDateTime.class),
+                rs.getObject("created_at", LocalDateTime.class));
+    }
+
+}
@@ -0,0 +1,11 @@
+package ru.peretyatko.app.outbox;
+
+import java.util.List;
+
+public interface OutboxSink {
+
+    String getName();
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+
+}
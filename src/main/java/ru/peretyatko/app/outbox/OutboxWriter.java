@@ -0,0 +1,54 @@
+package ru.peretyatko.app.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    public final static String SQL_INSERT_OUTBOX =
+            """
+            INSERT INTO transaction_outbox (change_type, transaction_id, seller_id, payment_type, amount,
+                                            previous_payment_type, previous_amount, transaction_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OutboxProperties outboxProperties;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!outboxProperties.isEnabled()) {
+            return;
+        }
+        List<Object[]> rows = event.getChanges().stream()
+                .map(this::toRow)
+                .toList();
+        jdbcTemplate.batchUpdate(SQL_INSERT_OUTBOX, rows);
+    }
+
+    private Object[] toRow(TransactionChange change) {
+        return new Object[]{change.getType().name(),
+                change.getTransactionId(),
+                change.getSellerId(),
+                change.getPaymentType() == null ? null : change.getPaymentType().name(),
+                BigDecimal.valueOf(change.getAmount()),
+                change.getPreviousPaymentType() == null ? null : change.getPreviousPaymentType().name(),
+                BigDecimal.valueOf(change.getPreviousAmount()),
+                Timestamp.valueOf(change.getTransactionDate())};
+    }
+
+}
@@ -0,0 +1,38 @@
+package ru.peretyatko.app.pagination;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ru.peretyatko.app.error.exception.ServiceException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode(Object... parts) {
+        String raw = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public <T> T decode(String cursor, int size, Function<String[], T> reader) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(Pattern.quote(SEPARATOR), -1);
+            if (parts.length != size) {
+                throw new IllegalArgumentException("Unexpected cursor size.");
+            }
+            return reader.apply(parts);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Cursor is invalid.");
+        }
+    }
+
+}
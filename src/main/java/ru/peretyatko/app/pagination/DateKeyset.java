@@ -0,0 +1,32 @@
+package ru.peretyatko.app.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class DateKeyset {
+
+    public static final LocalDateTime ORIGIN = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    public static final LocalDateTime HORIZON = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private LocalDateTime date;
+
+    private long id;
+
+    public static DateKeyset first() {
+        return new DateKeyset(ORIGIN, 0);
+    }
+
+    public static DateKeyset startingAt(LocalDateTime start) {
+        return new DateKeyset(start == null ? ORIGIN : start, 0);
+    }
+
+    public static DateKeyset parse(String[] parts) {
+        return new DateKeyset(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+    }
+
+}
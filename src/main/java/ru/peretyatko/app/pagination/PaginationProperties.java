@@ -0,0 +1,28 @@
+package ru.peretyatko.app.pagination;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import ru.peretyatko.app.error.exception.ServiceException;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+
+    private int defaultLimit = 50;
+
+    private int maxLimit = 500;
+
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxLimit + ".");
+        }
+        return limit;
+    }
+
+}
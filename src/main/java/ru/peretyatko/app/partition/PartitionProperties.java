@@ -0,0 +1,16 @@
+package ru.peretyatko.app.partition;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.partitions")
+public class PartitionProperties {
+
+    private boolean enabled = true;
+
+    private int monthsAhead = 3;
+
+}
@@ -0,0 +1,38 @@
+package ru.peretyatko.app.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionPartitionMaintenance {
+
+    public final static String SQL_CREATE_PARTITIONS = "SELECT create_transactions_partitions(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PartitionProperties partitionProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!partitionProperties.isEnabled()) {
+            return;
+        }
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        Integer created = jdbcTemplate.queryForObject(SQL_CREATE_PARTITIONS, Integer.class,
+                currentMonth, currentMonth.plusMonths(partitionProperties.getMonthsAhead()));
+        if (created != null && created > 0) {
+            log.info("Created {} transaction partitions up to {}", created, currentMonth.plusMonths(partitionProperties.getMonthsAhead()));
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package ru.peretyatko.app.purge;
+
+import ru.peretyatko.app.dto.seller.SellerPurgeResponse;
+import ru.peretyatko.app.dto.seller.SellerPurgeStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SellerPurge {
+
+    private final String id;
+
+    private final long sellerId;
+
+    private final long totalTransactions;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final AtomicLong deletedTransactions = new AtomicLong();
+
+    private volatile SellerPurgeStatus status = SellerPurgeStatus.RUNNING;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String message;
+
+    SellerPurge(String id, long sellerId, long totalTransactions) {
+        this.id = id;
+        this.sellerId = sellerId;
+        this.totalTransactions = totalTransactions;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    long getSellerId() {
+        return sellerId;
+    }
+
+    void addDeleted(long count) {
+        deletedTransactions.addAndGet(count);
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        status = SellerPurgeStatus.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.message = message;
+        finishedAt = LocalDateTime.now();
+        status = SellerPurgeStatus.FAILED;
+    }
+
+    SellerPurgeResponse toResponse() {
+        return new SellerPurgeResponse(id, sellerId, status, totalTransactions, deletedTransactions.get(),
+                startedAt, finishedAt, message);
+    }
+
+}
@@ -0,0 +1,18 @@
+package ru.peretyatko.app.purge;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.seller-purge")
+public class SellerPurgeProperties {
+
+    private int chunkSize = 5000;
+
+    private Duration retention = Duration.ofHours(1);
+
+}
@@ -0,0 +1,183 @@
+package ru.peretyatko.app.purge;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.peretyatko.app.dto.seller.SellerPurgeResponse;
+import ru.peretyatko.app.dto.seller.SellerPurgeStatus;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Service
+public class SellerPurgeService {
+
+    public final static String SQL_COUNT_TRANSACTIONS = "SELECT COUNT(*) FROM transactions WHERE seller_id = ?";
+
+    public final static String SQL_DELETE_TRANSACTIONS_CHUNK =
+            """
+            DELETE FROM transactions
+            WHERE (id, transaction_date) IN (
+                SELECT id, transaction_date
+                FROM transactions
+                WHERE seller_id = ?
+                LIMIT ?
+            )
+            RETURNING id, seller_id, amount, payment_type, transaction_date
+            """;
+
+    public final static String SQL_LOCK_SELLER = "SELECT id FROM sellers WHERE id = ? FOR UPDATE";
+
+    public final static String SQL_DELETE_REMAINING_TRANSACTIONS =
+            """
+            DELETE FROM transactions
+            WHERE seller_id = ?
+            RETURNING id, seller_id, amount, payment_type, transaction_date
+            """;
+
+    public final static String SQL_DELETE_SELLER = "DELETE FROM sellers WHERE id = ?";
+
+    private final SellerPurgeProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionOperations chunkTransactions;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Executor purgeExecutor;
+
+    private final Cache<String, SellerPurge> purges;
+
+    private final ConcurrentMap<Long, SellerPurge> running = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SellerPurgeService(SellerPurgeProperties properties, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this(properties, jdbcTemplate, requiresNew(transactionManager), eventPublisher, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    SellerPurgeService(SellerPurgeProperties properties, JdbcTemplate jdbcTemplate, TransactionOperations chunkTransactions,
+                       ApplicationEventPublisher eventPublisher, Executor purgeExecutor) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransactions = chunkTransactions;
+        this.eventPublisher = eventPublisher;
+        this.purgeExecutor = purgeExecutor;
+        this.purges = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getRetention())
+                .build();
+    }
+
+    public SellerPurgeResponse purge(long sellerId) {
+        SellerPurge purge = new SellerPurge(UUID.randomUUID().toString(), sellerId, countTransactions(sellerId));
+        if (running.putIfAbsent(sellerId, purge) != null) {
+            throw new ServiceException(HttpStatus.CONFLICT, "Seller is already being deleted.");
+        }
+        purges.put(purge.getId(), purge);
+        run(purge);
+        SellerPurgeResponse response = purge.toResponse();
+        if (response.getStatus() != SellerPurgeStatus.COMPLETED) {
+            throw new ServiceException(HttpStatus.INTERNAL_SERVER_ERROR, "Seller deletion failed: " + response.getMessage());
+        }
+        return response;
+    }
+
+    public SellerPurgeResponse purgeAsync(long sellerId) {
+        SellerPurge existing = running.get(sellerId);
+        if (existing != null) {
+            return existing.toResponse();
+        }
+        SellerPurge purge = new SellerPurge(UUID.randomUUID().toString(), sellerId, countTransactions(sellerId));
+        existing = running.putIfAbsent(sellerId, purge);
+        if (existing != null) {
+            return existing.toResponse();
+        }
+        purges.put(purge.getId(), purge);
+        purgeExecutor.execute(() -> run(purge));
+        return purge.toResponse();
+    }
+
+    public Optional<SellerPurgeResponse> getPurge(String purgeId) {
+        return Optional.ofNullable(purges.getIfPresent(purgeId)).map(SellerPurge::toResponse);
+    }
+
+    private long countTransactions(long sellerId) {
+        Long count = jdbcTemplate.queryForObject(SQL_COUNT_TRANSACTIONS, Long.class, sellerId);
+        return count == null ? 0 : count;
+    }
+
+    private void run(SellerPurge purge) {
+        try {
+            int deleted;
+            do {
+                deleted = chunkTransactions.execute(status -> publishDeleted(
+                        jdbcTemplate.query(SQL_DELETE_TRANSACTIONS_CHUNK, SellerPurgeService::toDeletedChange,
+                                purge.getSellerId(), properties.getChunkSize())));
+                purge.addDeleted(deleted);
+            } while (deleted >= properties.getChunkSize());
+            chunkTransactions.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList(SQL_LOCK_SELLER, Long.class, purge.getSellerId());
+                purge.addDeleted(publishDeleted(jdbcTemplate.query(SQL_DELETE_REMAINING_TRANSACTIONS,
+                        SellerPurgeService::toDeletedChange, purge.getSellerId())));
+                jdbcTemplate.update(SQL_DELETE_SELLER, purge.getSellerId());
+                eventPublisher.publishEvent(new SellerChangedEvent(ChangeType.DELETED, purge.getSellerId()));
+            });
+            purge.complete();
+        } catch (RuntimeException e) {
+            log.warn("Deletion of seller {} failed", purge.getSellerId(), e);
+            purge.fail(e.getMessage());
+        } finally {
+            running.remove(purge.getSellerId(), purge);
+        }
+    }
+
+    private int publishDeleted(List<TransactionChange> changes) {
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionsChangedEvent(changes));
+        }
+        return changes.size();
+    }
+
+    private static TransactionChange toDeletedChange(ResultSet rs, int rowNum) throws SQLException {
+        return new TransactionChange(ChangeType.DELETED,
+                rs.getLong("id"),
+                rs.getLong("seller_id"),
+                null,
+                0,
+                PaymentType.valueOf(rs.getString("payment_type")),
+                rs.getDouble("amount"),
+                rs.getObject("transaction_date", LocalDateTime.class));
+    }
+
+    private static TransactionOperations requiresNew(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate;
+    }
+
+}
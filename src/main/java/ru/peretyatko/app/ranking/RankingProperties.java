@@ -0,0 +1,28 @@
+package ru.peretyatko.app.ranking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import ru.peretyatko.app.error.exception.ServiceException;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.ranking")
+public class RankingProperties {
+
+    private int defaultTop = 100;
+
+    private int maxTop = 1000;
+
+    public int resolveTop(Integer top) {
+        if (top == null) {
+            return defaultTop;
+        }
+        if (top < 1 || top > maxTop) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Top must be between 1 and " + maxTop + ".");
+        }
+        return top;
+    }
+
+}
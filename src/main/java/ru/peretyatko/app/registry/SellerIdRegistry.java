@@ -0,0 +1,125 @@
+package ru.peretyatko.app.registry;
+
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.peretyatko.app.datasource.ReplicaRoutingDataSource;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.repository.SellerRepository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Component
+@RequiredArgsConstructor
+public class SellerIdRegistry {
+
+    private final SellerRepository sellerRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Roaring64Bitmap sellerIds = new Roaring64Bitmap();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        ReplicaRoutingDataSource.runOnPrimary(() -> {
+            lock.writeLock().lock();
+            try (Stream<Long> ids = sellerRepository.streamAllIds()) {
+                Roaring64Bitmap rebuilt = new Roaring64Bitmap();
+                ids.forEach(rebuilt::addLong);
+                rebuilt.runOptimize();
+                sellerIds = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onSellerChanged(SellerChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            remove(event.getSellerId());
+        } else {
+            add(event.getSellerId());
+        }
+    }
+
+    public boolean contains(long id) {
+        if (ready && isKnown(id)) {
+            return true;
+        }
+        boolean exists = sellerRepository.existsById(id);
+        if (exists) {
+            add(id);
+        }
+        return exists;
+    }
+
+    public Set<Long> retainExisting(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (long id : ids) {
+            if (ready && isKnown(id)) {
+                existing.add(id);
+            } else {
+                unknown.add(id);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<Long> found = sellerRepository.findExistingIds(unknown);
+            found.forEach(this::add);
+            existing.addAll(found);
+        }
+        return existing;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return sellerIds.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isKnown(long id) {
+        lock.readLock().lock();
+        try {
+            return sellerIds.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(long id) {
+        lock.writeLock().lock();
+        try {
+            sellerIds.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            sellerIds.removeLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.peretyatko.app.repository;
+
+import java.sql.SQLException;
+
+public final class Constraints {
+
+    public final static String TRANSACTIONS_SELLER_FKEY = "transactions_seller_id_fkey";
+
+    private final static String FOREIGN_KEY_VIOLATION = "23503";
+
+    private Constraints() {
+    }
+
+    public static boolean isForeignKeyViolation(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())
+                    && String.valueOf(sqlException.getMessage()).contains("\"" + constraint + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
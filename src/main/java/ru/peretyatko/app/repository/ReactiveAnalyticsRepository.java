@@ -0,0 +1,69 @@
+package ru.peretyatko.app.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class ReactiveAnalyticsRepository {
+
+    public final static String SQL_TRANSACTIONS =
+            """
+            SELECT id, seller_id, amount, payment_type, transaction_date
+            FROM transactions
+            WHERE transaction_date >= CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:end AS TIMESTAMP)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${app.reactive.fetch-size:500}")
+    private int fetchSize;
+
+    public Mono<SellerResponse> findBestSeller(LocalDateTime start, LocalDateTime end) {
+        return RollupRange.of(start, end, false).bind(databaseClient.sql(SellerAnalyticsRepository.SQL_BEST_SELLER))
+                .map(ReactiveAnalyticsRepository::toSellerResponse)
+                .first();
+    }
+
+    public Flux<SellerResponse> findSellersSumLessThen(int maxSum, LocalDateTime start, LocalDateTime end) {
+        return RollupRange.of(start, end, true).bind(databaseClient.sql(SellerAnalyticsRepository.SQL_SUM_LESS_THEN))
+                .bind("maxSum", maxSum)
+                .map(ReactiveAnalyticsRepository::toSellerResponse)
+                .all();
+    }
+
+    public Flux<TransactionResponse> streamTransactions(Long sellerId, LocalDateTime start, LocalDateTime end) {
+        String sql = SQL_TRANSACTIONS + (sellerId == null ? "" : "AND seller_id = :sellerId\n") + "ORDER BY transaction_date, id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("start", start)
+                .bind("end", end);
+        if (sellerId != null) {
+            spec = spec.bind("sellerId", sellerId);
+        }
+        return spec.map(ReactiveAnalyticsRepository::toTransactionResponse).all();
+    }
+
+    private static SellerResponse toSellerResponse(Readable row) {
+        return new SellerResponse(row.get("id", Long.class), row.get("name", String.class),
+                row.get("contact_info", String.class), row.get("registration_date", LocalDateTime.class));
+    }
+
+    private static TransactionResponse toTransactionResponse(Readable row) {
+        return new TransactionResponse(row.get("id", Long.class), row.get("seller_id", Long.class),
+                row.get("amount", BigDecimal.class).doubleValue(), PaymentType.valueOf(row.get("payment_type", String.class)),
+                row.get("transaction_date", LocalDateTime.class));
+    }
+
+}
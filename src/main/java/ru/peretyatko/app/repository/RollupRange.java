@@ -0,0 +1,75 @@
+package ru.peretyatko.app.repository;
+
+import jakarta.persistence.Query;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import ru.peretyatko.app.pagination.DateKeyset;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Getter
+@AllArgsConstructor
+public class RollupRange {
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private LocalDate fullStart;
+
+    private LocalDate fullEnd;
+
+    private LocalDateTime headEnd;
+
+    private LocalDateTime tailStart;
+
+    public static RollupRange of(LocalDateTime start, LocalDateTime end, boolean startInclusive) {
+        LocalDateTime from = start == null ? DateKeyset.ORIGIN : start;
+        LocalDateTime to = end == null ? DateKeyset.HORIZON : end;
+        boolean wholeFirstDay = startInclusive && from.toLocalTime().equals(LocalTime.MIDNIGHT);
+        LocalDate fullStart = wholeFirstDay ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+        LocalDate fullEnd = to.toLocalDate();
+        if (!fullStart.isBefore(fullEnd)) {
+            return new RollupRange(from, to, fullEnd, fullEnd, to, to);
+        }
+        return new RollupRange(from, to, fullStart, fullEnd, fullStart.atStartOfDay(), fullEnd.atStartOfDay());
+    }
+
+    public static RollupRange raw(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start == null ? DateKeyset.ORIGIN : start;
+        LocalDateTime to = end == null ? DateKeyset.HORIZON : end;
+        return new RollupRange(from, to, to.toLocalDate(), to.toLocalDate(), to, to);
+    }
+
+    public Query bind(Query query) {
+        return query.setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("fullStart", fullStart)
+                .setParameter("fullEnd", fullEnd)
+                .setParameter("headEnd", headEnd)
+                .setParameter("tailStart", tailStart);
+    }
+
+    public MapSqlParameterSource bind(MapSqlParameterSource params) {
+        return params.addValue("start", start)
+                .addValue("end", end)
+                .addValue("fullStart", fullStart)
+                .addValue("fullEnd", fullEnd)
+                .addValue("headEnd", headEnd)
+                .addValue("tailStart", tailStart);
+    }
+
+    public DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.bind("start", start)
+                .bind("end", end)
+                .bind("fullStart", fullStart)
+                .bind("fullEnd", fullEnd)
+                .bind("headEnd", headEnd)
+                .bind("tailStart", tailStart);
+    }
+
+}
@@ -0,0 +1,165 @@
+package ru.peretyatko.app.repository;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import ru.peretyatko.app.dto.seller.SellerRankResponse;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Seller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "crm.analytics.query", histogram = true)
+public class SellerAnalyticsRepository {
+
+    public final static String SQL_BEST_SELLER =
+            """
+            WITH totals AS (
+                SELECT seller_id, total_amount AS amount, transaction_count
+                FROM seller_daily_totals
+                WHERE day >= :fullStart AND day < :fullEnd
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date > CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:headEnd AS TIMESTAMP)
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:tailStart AS TIMESTAMP) AND transaction_date < CAST(:end AS TIMESTAMP)
+            )
+            SELECT id, name, contact_info, registration_date
+            FROM sellers
+            WHERE id = (
+                SELECT seller_id
+                FROM totals
+                GROUP BY seller_id
+                HAVING SUM(transaction_count) > 0
+                ORDER BY COALESCE(SUM(amount), 0) DESC
+                LIMIT 1
+            )
+            """;
+
+    public final static String SQL_SUM_LESS_THEN =
+            """
+            WITH totals AS (
+                SELECT seller_id, total_amount AS amount, transaction_count
+                FROM seller_daily_totals
+                WHERE day >= :fullStart AND day < :fullEnd
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:headEnd AS TIMESTAMP)
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:tailStart AS TIMESTAMP) AND transaction_date <= CAST(:end AS TIMESTAMP)
+            )
+            SELECT sellers.id, sellers.name, sellers.contact_info, sellers.registration_date
+            FROM sellers JOIN totals
+            ON sellers.id = totals.seller_id
+            GROUP BY sellers.id
+            HAVING SUM(totals.transaction_count) > 0 AND COALESCE(SUM(totals.amount), 0) < :maxSum
+            ORDER BY SUM(totals.amount) DESC
+            """;
+
+    public final static String SQL_TOP_SELLERS =
+            """
+            WITH totals AS (
+                SELECT seller_id, total_amount AS amount, transaction_count
+                FROM seller_daily_totals
+                WHERE day >= :fullStart AND day < :fullEnd
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:headEnd AS TIMESTAMP)
+                UNION ALL
+                SELECT seller_id, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:tailStart AS TIMESTAMP) AND transaction_date < CAST(:end AS TIMESTAMP)
+            ),
+            seller_totals AS (
+                SELECT seller_id, SUM(amount) AS total_amount, CAST(SUM(transaction_count) AS BIGINT) AS transaction_count
+                FROM totals
+                GROUP BY seller_id
+                HAVING SUM(transaction_count) > 0
+            ),
+            cutoff AS (
+                SELECT MIN(total_amount) AS total_amount
+                FROM (SELECT total_amount FROM seller_totals ORDER BY total_amount DESC LIMIT :top) top_amounts
+            ),
+            top_sellers AS (
+                SELECT seller_totals.seller_id, seller_totals.total_amount, seller_totals.transaction_count
+                FROM seller_totals JOIN cutoff
+                ON seller_totals.total_amount >= cutoff.total_amount
+            )
+            SELECT DENSE_RANK() OVER (ORDER BY top_sellers.total_amount DESC) AS rank,
+                   sellers.id, sellers.name, top_sellers.total_amount, top_sellers.transaction_count
+            FROM top_sellers JOIN sellers
+            ON sellers.id = top_sellers.seller_id
+            ORDER BY top_sellers.total_amount DESC, sellers.id
+            """;
+
+    public final static String SQL_TOP_SELLERS_BY_PAYMENT_TYPE =
+            """
+            WITH seller_totals AS (
+                SELECT seller_id, SUM(amount) AS total_amount, COUNT(*) AS transaction_count
+                FROM transactions
+                WHERE transaction_date >= CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:end AS TIMESTAMP)
+                  AND payment_type = :paymentType
+                GROUP BY seller_id
+            ),
+            cutoff AS (
+                SELECT MIN(total_amount) AS total_amount
+                FROM (SELECT total_amount FROM seller_totals ORDER BY total_amount DESC LIMIT :top) top_amounts
+            ),
+            top_sellers AS (
+                SELECT seller_totals.seller_id, seller_totals.total_amount, seller_totals.transaction_count
+                FROM seller_totals JOIN cutoff
+                ON seller_totals.total_amount >= cutoff.total_amount
+            )
+            SELECT DENSE_RANK() OVER (ORDER BY top_sellers.total_amount DESC) AS rank,
+                   sellers.id, sellers.name, top_sellers.total_amount, top_sellers.transaction_count
+            FROM top_sellers JOIN sellers
+            ON sellers.id = top_sellers.seller_id
+            ORDER BY top_sellers.total_amount DESC, sellers.id
+            """;
+
+    @PersistenceContext
+    private final EntityManager entityManager;
+
+    public Optional<SellerResponse> findBestSeller(LocalDateTime start, LocalDateTime end) {
+        Query query = RollupRange.of(start, end, false).bind(entityManager.createNativeQuery(SQL_BEST_SELLER, Seller.SELLER_RESPONSE_MAPPING));
+        List<?> list = query.getResultList();
+        return list.isEmpty() ? Optional.empty() : Optional.of((SellerResponse) list.getFirst());
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<SellerResponse> findSellersSumLessThen(int maxSum, LocalDateTime start, LocalDateTime end) {
+        Query query = RollupRange.of(start, end, true).bind(entityManager.createNativeQuery(SQL_SUM_LESS_THEN, Seller.SELLER_RESPONSE_MAPPING));
+        return (List<SellerResponse>) query.setParameter("maxSum", maxSum).getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<SellerRankResponse> findTopSellers(LocalDateTime start, LocalDateTime end, PaymentType paymentType, int top) {
+        RollupRange range = RollupRange.of(start, end, true);
+        Query query;
+        if (paymentType == null) {
+            query = range.bind(entityManager.createNativeQuery(SQL_TOP_SELLERS, Seller.SELLER_RANK_MAPPING));
+        } else {
+            query = entityManager.createNativeQuery(SQL_TOP_SELLERS_BY_PAYMENT_TYPE, Seller.SELLER_RANK_MAPPING)
+                    .setParameter("start", range.getStart())
+                    .setParameter("end", range.getEnd())
+                    .setParameter("paymentType", paymentType.name());
+        }
+        return (List<SellerRankResponse>) query.setParameter("top", top).getResultList();
+    }
+
+}
@@ -1,12 +1,57 @@
 package ru.peretyatko.app.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.peretyatko.app.dto.EntityVersion;
+import ru.peretyatko.app.dto.seller.SellerResponse;
 import ru.peretyatko.app.model.Seller;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface SellerRepository extends JpaRepository<Seller, Long> {
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.seller.SellerResponse(s.id, s.name, s.contactInfo, s.registrationDate)
+            FROM Seller s
+            WHERE s.id = :id
+            """)
+    Optional<SellerResponse> findResponseById(@Param("id") long id);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.seller.SellerResponse(s.id, s.name, s.contactInfo, s.registrationDate)
+            FROM Seller s
+            WHERE s.id > :afterId
+            ORDER BY s.id
+            """)
+    List<SellerResponse> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.EntityVersion(s.id, s.version, s.updatedAt)
+            FROM Seller s
+            WHERE s.id = :id
+            """)
+    Optional<EntityVersion> findVersionById(@Param("id") long id);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.EntityVersion(s.id, s.version, s.updatedAt)
+            FROM Seller s
+            WHERE s.id > :afterId
+            ORDER BY s.id
+            """)
+    List<EntityVersion> findVersionPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT s.id FROM Seller s WHERE s.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id FROM Seller s")
+    Stream<Long> streamAllIds();
+
 }
@@ -1,8 +1,74 @@
 package ru.peretyatko.app.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.peretyatko.app.dto.EntityVersion;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
 import ru.peretyatko.app.model.Transaction;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.transaction.TransactionResponse(t.id, t.seller.id, t.amount, t.paymentType, t.transactionDate)
+            FROM Transaction t
+            WHERE t.id = :id
+            """)
+    Optional<TransactionResponse> findResponseById(@Param("id") long id);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.transaction.TransactionResponse(t.id, t.seller.id, t.amount, t.paymentType, t.transactionDate)
+            FROM Transaction t
+            WHERE t.id IN :ids
+            """)
+    List<TransactionResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.EntityVersion(t.id, t.version, t.updatedAt)
+            FROM Transaction t
+            WHERE t.id = :id
+            """)
+    Optional<EntityVersion> findVersionById(@Param("id") long id);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.transaction.TransactionResponse(t.id, t.seller.id, t.amount, t.paymentType, t.transactionDate)
+            FROM Transaction t
+            WHERE t.transactionDate >= :afterDate
+              AND (t.transactionDate > :afterDate OR t.id > :afterId)
+            ORDER BY t.transactionDate, t.id
+            """)
+    List<TransactionResponse> findPageAfter(@Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") long afterId,
+                                            Limit limit);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.transaction.TransactionResponse(t.id, t.seller.id, t.amount, t.paymentType, t.transactionDate)
+            FROM Transaction t
+            WHERE t.seller.id = :sellerId
+              AND t.transactionDate >= :afterDate
+              AND (t.transactionDate > :afterDate OR t.id > :afterId)
+              AND t.transactionDate < :end
+            ORDER BY t.transactionDate, t.id
+            """)
+    List<TransactionResponse> findPageOfSellerAfter(@Param("sellerId") long sellerId,
+                                                    @Param("afterDate") LocalDateTime afterDate,
+                                                    @Param("afterId") long afterId,
+                                                    @Param("end") LocalDateTime end,
+                                                    Limit limit);
+
+    @Query("""
+            SELECT new ru.peretyatko.app.dto.transaction.TransactionResponse(t.id, t.seller.id, t.amount, t.paymentType, t.transactionDate)
+            FROM Transaction t
+            WHERE t.transactionDate >= :since AND t.transactionDate < :until
+            """)
+    Stream<TransactionResponse> streamBetween(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
 }
@@ -0,0 +1,149 @@
+package ru.peretyatko.app.revenue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.peretyatko.app.dto.RangeDate;
+import ru.peretyatko.app.dto.seller.SellerBestWindowResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+public class BestWindowService {
+
+    public final static String SQL_SELLER_TRANSACTIONS =
+            """
+            SELECT transaction_date, amount
+            FROM transactions
+            WHERE seller_id = ? AND transaction_date >= ? AND transaction_date < ?
+            ORDER BY transaction_date, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SellerIdRegistry sellerIdRegistry;
+
+    private final int fetchSize;
+
+    private final int maxDays;
+
+    public BestWindowService(JdbcTemplate jdbcTemplate,
+                             SellerIdRegistry sellerIdRegistry,
+                             @Value("${app.best-window.fetch-size:1000}") int fetchSize,
+                             @Value("${app.best-window.max-days:366}") int maxDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sellerIdRegistry = sellerIdRegistry;
+        this.fetchSize = fetchSize;
+        this.maxDays = maxDays;
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SellerBestWindowResponse findBestWindow(long sellerId, int days, LocalDateTime start, LocalDateTime end) {
+        RangeDate.requireOrdered(start, end);
+        if (days < 1 || days > maxDays) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Days must be between 1 and " + maxDays + ".");
+        }
+        if (!sellerIdRegistry.contains(sellerId)) {
+            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
+        }
+        LocalDateTime from = start == null ? DateKeyset.ORIGIN : start;
+        LocalDateTime to = end == null ? DateKeyset.HORIZON : end;
+        BestWindow best = jdbcTemplate.execute((ConnectionCallback<BestWindow>) connection -> {
+            try (PreparedStatement leading = prepare(connection, sellerId, from, to);
+                 PreparedStatement trailing = prepare(connection, sellerId, from, to);
+                 ResultSet lead = leading.executeQuery();
+                 ResultSet trail = trailing.executeQuery()) {
+                return scan(TransactionCursor.of(lead), TransactionCursor.of(trail), Duration.ofDays(days));
+            }
+        });
+        if (best == null) {
+            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller has no transactions in range.");
+        }
+        return new SellerBestWindowResponse(sellerId, days, best.start(), best.end(), best.amount(), best.count());
+    }
+
+    static BestWindow scan(TransactionCursor lead, TransactionCursor trail, Duration window) throws SQLException {
+        BigDecimal amount = BigDecimal.ZERO;
+        long count = 0;
+        boolean trailLoaded = false;
+        BestWindow best = null;
+        while (lead.next()) {
+            LocalDateTime end = lead.date();
+            LocalDateTime start = end.minus(window);
+            amount = amount.add(lead.amount());
+            ++count;
+            while (true) {
+                if (!trailLoaded && !trail.next()) {
+                    throw new IllegalStateException("Trailing cursor ran past the leading cursor.");
+                }
+                trailLoaded = true;
+                if (trail.date().isAfter(start)) {
+                    break;
+                }
+                amount = amount.subtract(trail.amount());
+                --count;
+                trailLoaded = false;
+            }
+            if (best == null || amount.compareTo(best.amount()) > 0) {
+                best = new BestWindow(start, end, amount, count);
+            }
+        }
+        return best;
+    }
+
+    private PreparedStatement prepare(Connection connection, long sellerId, LocalDateTime from, LocalDateTime to) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(SQL_SELLER_TRANSACTIONS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        statement.setLong(1, sellerId);
+        statement.setObject(2, from);
+        statement.setObject(3, to);
+        return statement;
+    }
+
+    record BestWindow(LocalDateTime start, LocalDateTime end, BigDecimal amount, long count) {
+    }
+
+    interface TransactionCursor {
+
+        boolean next() throws SQLException;
+
+        LocalDateTime date() throws SQLException;
+
+        BigDecimal amount() throws SQLException;
+
+        static TransactionCursor of(ResultSet resultSet) {
+            return new TransactionCursor() {
+                @Override
+                public boolean next() throws SQLException {
+                    return resultSet.next();
+                }
+
+                @Override
+                public LocalDateTime date() throws SQLException {
+                    return resultSet.getObject(1, LocalDateTime.class);
+                }
+
+                @Override
+                public BigDecimal amount() throws SQLException {
+                    return resultSet.getBigDecimal(2);
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package ru.peretyatko.app.revenue;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.revenue")
+public class RevenueProperties {
+
+    private Duration bucket = Duration.ofMinutes(1);
+
+    private int buckets = 60;
+
+    private List<Integer> windowMinutes = List.of(5, 15, 60);
+
+    public Duration getHorizon() {
+        return bucket.multipliedBy(buckets);
+    }
+
+}
@@ -0,0 +1,94 @@
+package ru.peretyatko.app.revenue;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RevenueWindow {
+
+    private final long bucketMillis;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public RevenueWindow(long bucketMillis, int size) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; ++i) {
+            buckets.set(i, new Bucket(Long.MIN_VALUE));
+        }
+    }
+
+    public void add(long timestampMillis, long nowMillis, long amountCents, long count) {
+        long epoch = Math.floorDiv(timestampMillis, bucketMillis);
+        long nowEpoch = Math.floorDiv(nowMillis, bucketMillis);
+        if (epoch > nowEpoch || epoch <= nowEpoch - buckets.length()) {
+            return;
+        }
+        Bucket bucket = bucketFor(epoch);
+        if (bucket != null) {
+            bucket.amountCents.add(amountCents);
+            bucket.count.add(count);
+        }
+    }
+
+    public Totals sum(long windowMillis, long nowMillis) {
+        long nowEpoch = Math.floorDiv(nowMillis, bucketMillis);
+        long firstEpoch = nowEpoch - Math.min(buckets.length(), Math.ceilDiv(windowMillis, bucketMillis)) + 1;
+        long amountCents = 0;
+        long count = 0;
+        for (int i = 0; i < buckets.length(); ++i) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.epoch >= firstEpoch && bucket.epoch <= nowEpoch) {
+                amountCents += bucket.amountCents.sum();
+                count += bucket.count.sum();
+            }
+        }
+        return new Totals(amountCents, count);
+    }
+
+    public boolean isEmpty(long nowMillis) {
+        long nowEpoch = Math.floorDiv(nowMillis, bucketMillis);
+        for (int i = 0; i < buckets.length(); ++i) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.epoch > nowEpoch - buckets.length() && bucket.epoch <= nowEpoch
+                    && (bucket.count.sum() != 0 || bucket.amountCents.sum() != 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Bucket bucketFor(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket current = buckets.get(index);
+            if (current.epoch == epoch) {
+                return current;
+            }
+            if (current.epoch > epoch) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    public record Totals(long amountCents, long count) {
+    }
+
+    private static class Bucket {
+
+        private final long epoch;
+
+        private final LongAdder amountCents = new LongAdder();
+
+        private final LongAdder count = new LongAdder();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+    }
+
+}
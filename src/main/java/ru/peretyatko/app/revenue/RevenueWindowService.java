@@ -0,0 +1,224 @@
+package ru.peretyatko.app.revenue;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.peretyatko.app.datasource.ReplicaRoutingDataSource;
+import ru.peretyatko.app.dto.seller.SellerRevenueResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.repository.TransactionRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class RevenueWindowService {
+
+    private final RevenueProperties revenueProperties;
+
+    private final TransactionRepository transactionRepository;
+
+    private final Clock clock;
+
+    private final Map<Long, RevenueWindow> windows = new ConcurrentHashMap<>();
+
+    private final List<TransactionChange> pending = new ArrayList<>();
+
+    private final Lock pendingLock = new ReentrantLock();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public RevenueWindowService(RevenueProperties revenueProperties, TransactionRepository transactionRepository) {
+        this(revenueProperties, transactionRepository, Clock.systemDefaultZone());
+    }
+
+    RevenueWindowService(RevenueProperties revenueProperties, TransactionRepository transactionRepository, Clock clock) {
+        this.revenueProperties = revenueProperties;
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void rebuild() {
+        ReplicaRoutingDataSource.runOnPrimary(this::rebuildFromSnapshot);
+    }
+
+    @TransactionalEventListener
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!ready) {
+            pendingLock.lock();
+            try {
+                if (!ready) {
+                    pending.addAll(event.getChanges());
+                    return;
+                }
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+        for (TransactionChange change : event.getChanges()) {
+            apply(change);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.revenue.bucket:1m}")
+    public void prune() {
+        long now = clock.millis();
+        for (Long sellerId : windows.keySet()) {
+            windows.computeIfPresent(sellerId, (id, window) -> window.isEmpty(now) ? null : window);
+        }
+    }
+
+    public List<SellerRevenueResponse> getSellerRevenue(long sellerId) {
+        RevenueWindow window = windows.get(sellerId);
+        long now = clock.millis();
+        return revenueProperties.getWindowMinutes().stream()
+                .map(minutes -> toResponse(sellerId, minutes, window == null ? null : window.sum(toMillis(minutes), now)))
+                .collect(Collectors.toList());
+    }
+
+    public List<SellerRevenueResponse> getTopSellers(int minutes, int limit) {
+        long horizonMinutes = revenueProperties.getHorizon().toMinutes();
+        if (minutes < 1 || minutes > horizonMinutes) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Window must be between 1 and " + horizonMinutes + " minutes.");
+        }
+        if (limit < 1) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Limit must be positive.");
+        }
+        long now = clock.millis();
+        long windowMillis = toMillis(minutes);
+        Comparator<SellerRevenueResponse> byAmount = Comparator.comparingDouble(SellerRevenueResponse::getAmount);
+        PriorityQueue<SellerRevenueResponse> top = new PriorityQueue<>(byAmount);
+        windows.forEach((sellerId, window) -> {
+            RevenueWindow.Totals totals = window.sum(windowMillis, now);
+            if (totals.count() <= 0) {
+                return;
+            }
+            top.offer(toResponse(sellerId, minutes, totals));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        return top.stream().sorted(byAmount.reversed()).collect(Collectors.toList());
+    }
+
+    private void rebuildFromSnapshot() {
+        LocalDateTime since = LocalDateTime.now(clock).minus(revenueProperties.getHorizon());
+        try (Stream<TransactionResponse> transactions = transactionRepository.streamBetween(since, DateKeyset.HORIZON)) {
+            transactions.forEach(transaction -> record(transaction.getSellerId(), transaction.getTransactionDate(),
+                    toCents(transaction.getAmount()), 1));
+        }
+        Map<Long, Long> snapshot = new HashMap<>();
+        while (true) {
+            List<TransactionChange> changes;
+            pendingLock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    ready = true;
+                    return;
+                }
+                changes = new ArrayList<>(pending);
+                pending.clear();
+            } finally {
+                pendingLock.unlock();
+            }
+            replay(changes, snapshot);
+        }
+    }
+
+    int getTrackedSellers() {
+        return windows.size();
+    }
+
+    private void replay(List<TransactionChange> changes, Map<Long, Long> snapshot) {
+        Set<Long> unseen = changes.stream()
+                .map(TransactionChange::getTransactionId)
+                .filter(id -> !snapshot.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!unseen.isEmpty()) {
+            unseen.forEach(id -> snapshot.put(id, null));
+            transactionRepository.findResponsesByIds(unseen)
+                    .forEach(transaction -> snapshot.put(transaction.getId(), toCents(transaction.getAmount())));
+        }
+        for (TransactionChange change : changes) {
+            Long known = snapshot.get(change.getTransactionId());
+            boolean afterSnapshot = switch (change.getType()) {
+                case CREATED -> known == null;
+                case UPDATED -> known != null && known == toCents(change.getPreviousAmount());
+                case DELETED -> known != null;
+            };
+            if (afterSnapshot) {
+                apply(change);
+                snapshot.put(change.getTransactionId(), change.getType() == ChangeType.DELETED ? null : toCents(change.getAmount()));
+            }
+        }
+    }
+
+    private void apply(TransactionChange change) {
+        record(change.getSellerId(), change.getTransactionDate(), toCents(change.getAmountDelta()), change.getCountDelta());
+    }
+
+    private void record(long sellerId, LocalDateTime transactionDate, long amountCents, long count) {
+        long timestamp = transactionDate.atZone(clock.getZone()).toInstant().toEpochMilli();
+        long now = clock.millis();
+        while (true) {
+            RevenueWindow window = windows.get(sellerId);
+            if (window == null) {
+                window = windows.computeIfAbsent(sellerId,
+                        id -> new RevenueWindow(revenueProperties.getBucket().toMillis(), revenueProperties.getBuckets()));
+            }
+            window.add(timestamp, now, amountCents, count);
+            if (windows.get(sellerId) == window) {
+                return;
+            }
+        }
+    }
+
+    private long toCents(double amount) {
+        return toCents(BigDecimal.valueOf(amount));
+    }
+
+    private long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private SellerRevenueResponse toResponse(long sellerId, int minutes, RevenueWindow.Totals totals) {
+        if (totals == null) {
+            return new SellerRevenueResponse(sellerId, minutes, 0, 0);
+        }
+        return new SellerRevenueResponse(sellerId, minutes, totals.amountCents() / 100.0, totals.count());
+    }
+
+    private long toMillis(int minutes) {
+        return Duration.ofMinutes(minutes).toMillis();
+    }
+
+}
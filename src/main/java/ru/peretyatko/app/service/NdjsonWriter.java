@@ -0,0 +1,33 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+public class NdjsonWriter implements Flushable {
+
+    private final Writer writer;
+
+    private final JsonGenerator generator;
+
+    public NdjsonWriter(ObjectMapper objectMapper, Writer writer) throws IOException {
+        this.writer = writer;
+        this.generator = objectMapper.createGenerator(writer);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void write(Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+        writer.flush();
+    }
+
+}
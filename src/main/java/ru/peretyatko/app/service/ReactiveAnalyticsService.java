@@ -0,0 +1,46 @@
+package ru.peretyatko.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.peretyatko.app.dto.RangeDate;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.repository.ReactiveAnalyticsRepository;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveAnalyticsService {
+
+    private final ReactiveAnalyticsRepository reactiveAnalyticsRepository;
+
+    public Mono<SellerResponse> getBestSeller(LocalDateTime start, LocalDateTime end) {
+        return Mono.defer(() -> {
+                    RangeDate.requireOrdered(start, end);
+                    return reactiveAnalyticsRepository.findBestSeller(start, end);
+                })
+                .switchIfEmpty(Mono.error(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.")));
+    }
+
+    public Flux<SellerResponse> getSellersSumLessThen(int sum, LocalDateTime start, LocalDateTime end) {
+        return Flux.defer(() -> {
+            RangeDate.requireOrdered(start, end);
+            return reactiveAnalyticsRepository.findSellersSumLessThen(sum, start, end);
+        });
+    }
+
+    public Flux<TransactionResponse> getTransactions(Long sellerId, LocalDateTime start, LocalDateTime end) {
+        return Flux.defer(() -> {
+            RangeDate.requireOrdered(start, end);
+            return reactiveAnalyticsRepository.streamTransactions(sellerId,
+                    start == null ? DateKeyset.ORIGIN : start, end == null ? DateKeyset.HORIZON : end);
+        });
+    }
+
+}
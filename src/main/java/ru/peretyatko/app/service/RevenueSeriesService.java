@@ -0,0 +1,149 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.peretyatko.app.dto.RangeDate;
+import ru.peretyatko.app.dto.seller.RevenueBucket;
+import ru.peretyatko.app.dto.seller.RevenuePointResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+import ru.peretyatko.app.repository.RollupRange;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+public class RevenueSeriesService {
+
+    public final static String SQL_REVENUE_SERIES =
+            """
+            WITH parts AS (
+                SELECT CAST(day AS TIMESTAMP) AS moment, total_amount AS amount, transaction_count
+                FROM seller_daily_totals
+                WHERE day >= :fullStart AND day < :fullEnd%1$s
+                UNION ALL
+                SELECT transaction_date, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:start AS TIMESTAMP) AND transaction_date < CAST(:headEnd AS TIMESTAMP)%1$s
+                UNION ALL
+                SELECT transaction_date, amount, 1
+                FROM transactions
+                WHERE transaction_date >= CAST(:tailStart AS TIMESTAMP) AND transaction_date < CAST(:end AS TIMESTAMP)%1$s
+            ),
+            totals AS (
+                SELECT date_trunc(:unit, moment) AS bucket_start, SUM(amount) AS amount,
+                       CAST(SUM(transaction_count) AS BIGINT) AS transaction_count
+                FROM parts
+                GROUP BY 1
+            ),
+            buckets AS (
+                SELECT generate_series(date_trunc(:unit, CAST(:start AS TIMESTAMP)),
+                                       CAST(:end AS TIMESTAMP) - INTERVAL '1 microsecond',
+                                       CAST(:step AS INTERVAL)) AS bucket_start
+            )
+            SELECT buckets.bucket_start, COALESCE(totals.amount, 0) AS amount,
+                   COALESCE(totals.transaction_count, 0) AS transaction_count
+            FROM buckets LEFT JOIN totals
+            ON totals.bucket_start = buckets.bucket_start
+            ORDER BY buckets.bucket_start
+            """;
+
+    public final static String SQL_SELLER_FILTER = " AND seller_id = :sellerId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final SellerIdRegistry sellerIdRegistry;
+
+    private final int fetchSize;
+
+    private final int maxBuckets;
+
+    public RevenueSeriesService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                SellerIdRegistry sellerIdRegistry,
+                                @Value("${app.revenue-series.fetch-size:1000}") int fetchSize,
+                                @Value("${app.revenue-series.max-buckets:10000}") int maxBuckets) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.sellerIdRegistry = sellerIdRegistry;
+        this.fetchSize = fetchSize;
+        this.maxBuckets = maxBuckets;
+    }
+
+    public StreamingResponseBody series(RevenueBucket bucket, Long sellerId, LocalDateTime start, LocalDateTime end) {
+        RangeDate.requireOrdered(start, end);
+        if (Duration.between(start, end).dividedBy(bucket.getDuration()) >= maxBuckets) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Range must contain less than " + maxBuckets + " buckets.");
+        }
+        if (sellerId != null && !sellerIdRegistry.contains(sellerId)) {
+            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
+        }
+        RollupRange range = bucket.isRollup() ? RollupRange.of(start, end, true) : RollupRange.raw(start, end);
+        MapSqlParameterSource params = range.bind(new MapSqlParameterSource())
+                .addValue("unit", bucket.getUnit())
+                .addValue("step", bucket.getStep());
+        if (sellerId != null) {
+            params.addValue("sellerId", sellerId);
+        }
+        String sql = SQL_REVENUE_SERIES.formatted(sellerId == null ? "" : SQL_SELLER_FILTER);
+        return outputStream -> transactionTemplate.executeWithoutResult(status -> write(sellerId, sql, params, outputStream));
+    }
+
+    private void write(Long sellerId, String sql, MapSqlParameterSource params, OutputStream outputStream) {
+        try {
+            NdjsonWriter ndjsonWriter = new NdjsonWriter(objectMapper,
+                    new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            RowCallbackHandler handler = new RowCallbackHandler() {
+                private long rows;
+
+                @Override
+                public void processRow(ResultSet rs) throws SQLException {
+                    RevenuePointResponse point = new RevenuePointResponse(sellerId,
+                            rs.getObject("bucket_start", LocalDateTime.class),
+                            rs.getBigDecimal("amount"),
+                            rs.getLong("transaction_count"));
+                    try {
+                        ndjsonWriter.write(point);
+                        if (++rows % fetchSize == 0) {
+                            ndjsonWriter.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            jdbcTemplate.query(sql, params, handler);
+            ndjsonWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package ru.peretyatko.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+public class SellerDailyTotalsService {
+
+    public final static String SQL_UPSERT_DAILY_TOTAL =
+            """
+            INSERT INTO seller_daily_totals (seller_id, day, total_amount, transaction_count)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (seller_id, day) DO UPDATE
+            SET total_amount = seller_daily_totals.total_amount + EXCLUDED.total_amount,
+                transaction_count = seller_daily_totals.transaction_count + EXCLUDED.transaction_count
+            """;
+
+    private static final Comparator<DayKey> DAY_KEY_ORDER = Comparator
+            .comparingLong(DayKey::sellerId)
+            .thenComparing(DayKey::day);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTransactionsChanged(TransactionsChangedEvent event) {
+        Map<DayKey, Delta> deltas = new TreeMap<>(DAY_KEY_ORDER);
+        for (TransactionChange change : event.getChanges()) {
+            DayKey key = new DayKey(change.getSellerId(), change.getTransactionDate().toLocalDate());
+            deltas.computeIfAbsent(key, k -> new Delta()).add(change.getAmountDelta(), change.getCountDelta());
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta.amount.signum() != 0 || delta.count != 0) {
+                rows.add(new Object[]{key.sellerId(), Date.valueOf(key.day()), delta.amount, delta.count});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_UPSERT_DAILY_TOTAL, rows);
+        }
+    }
+
+    private record DayKey(long sellerId, LocalDate day) {
+    }
+
+    private static class Delta {
+
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        private long count;
+
+        private void add(BigDecimal amount, long count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+        }
+
+    }
+
+}
@@ -1,75 +1,114 @@
 package ru.peretyatko.app.service;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.peretyatko.app.cache.AnalyticsCache;
+import ru.peretyatko.app.cache.AnalyticsKey;
+import ru.peretyatko.app.dto.AnalyticsCacheStatsResponse;
+import ru.peretyatko.app.dto.EntityVersion;
+import ru.peretyatko.app.dto.PageResponse;
 import ru.peretyatko.app.dto.RangeDate;
 import ru.peretyatko.app.dto.seller.SellerPatchRequest;
 import ru.peretyatko.app.dto.seller.SellerPostRequest;
+import ru.peretyatko.app.dto.seller.SellerPurgeResponse;
+import ru.peretyatko.app.dto.seller.SellerRankResponse;
 import ru.peretyatko.app.dto.seller.SellerResponse;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
 import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
 import ru.peretyatko.app.mapper.SellerMapper;
-import ru.peretyatko.app.mapper.TransactionMapper;
+import ru.peretyatko.app.model.PaymentType;
 import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.pagination.CursorCodec;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.pagination.PaginationProperties;
+import ru.peretyatko.app.purge.SellerPurgeService;
+import ru.peretyatko.app.ranking.RankingProperties;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+import ru.peretyatko.app.repository.SellerAnalyticsRepository;
 import ru.peretyatko.app.repository.SellerRepository;
+import ru.peretyatko.app.repository.TransactionRepository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "crm.service", histogram = true)
 public class SellerService {
 
-    public final static String SQL_BEST_SELLER =
-            """
-            SELECT * 
-            FROM sellers
-            WHERE id = (
-                SELECT seller_id
-                FROM transactions
-                WHERE transaction_date > :start AND transaction_date < :end
-                GROUP BY seller_id
-                ORDER BY COALESCE(SUM(amount), 0) DESC
-                LIMIT 1
-            )
-            """;
-
-    public final static String SQL_SUM_LESS_THEN =
-            """
-            SELECT sellers.id, sellers.name, sellers.contact_info, sellers.registration_date 
-            FROM sellers LEFT JOIN transactions 
-            ON sellers.id = transactions.seller_id 
-            WHERE transactions.transaction_date BETWEEN :start AND :end 
-            GROUP BY sellers.id 
-            HAVING COALESCE(SUM(transactions.amount), 0) < :maxSum 
-            ORDER BY SUM(amount) DESC 
-            """;
-
-
     private final SellerRepository sellerRepository;
 
     private final SellerMapper sellerMapper;
 
-    private final TransactionMapper transactionMapper;
+    private final TransactionRepository transactionRepository;
+
+    private final SellerAnalyticsRepository sellerAnalyticsRepository;
+
+    private final CursorCodec cursorCodec;
+
+    private final PaginationProperties paginationProperties;
+
+    private final SellerIdRegistry sellerIdRegistry;
+
+    private final ApplicationEventPublisher eventPublisher;
 
-    @PersistenceContext
-    private final EntityManager entityManager;
+    private final AnalyticsCache analyticsCache;
+
+    private final SellerPurgeService sellerPurgeService;
+
+    private final RankingProperties rankingProperties;
 
     @Transactional(readOnly = true)
     public SellerResponse getSeller(long id) {
-        Seller seller = sellerRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
-        return sellerMapper.toSellerResponse(seller);
+        return sellerRepository.findResponseById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<SellerResponse> getSellerIfModified(long id, Predicate<EntityVersion> notModified) {
+        if (notModified.test(getSellerVersion(id))) {
+            return Optional.empty();
+        }
+        return Optional.of(getSeller(id));
     }
 
     @Transactional(readOnly = true)
-    public List<SellerResponse> getSellers() {
-        return sellerRepository.findAll().stream().map(sellerMapper::toSellerResponse).collect(Collectors.toList());
+    public EntityVersion getSellerVersion(long id) {
+        return sellerRepository.findVersionById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<SellerResponse> getSellers(String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        List<SellerResponse> rows = sellerRepository.findPageAfter(decodeAfterId(cursor), Limit.of(pageSize + 1));
+        return PageResponse.of(rows, pageSize, seller -> cursorCodec.encode(seller.getId()));
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<PageResponse<SellerResponse>> getSellersIfModified(String cursor, Integer limit,
+                                                                     Predicate<List<EntityVersion>> notModified) {
+        if (notModified.test(getSellersVersions(cursor, limit))) {
+            return Optional.empty();
+        }
+        return Optional.of(getSellers(cursor, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public List<EntityVersion> getSellersVersions(String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        return sellerRepository.findVersionPageAfter(decodeAfterId(cursor), Limit.of(pageSize + 1));
     }
 
     @Transactional
@@ -77,6 +116,7 @@ public class SellerService {
         Seller seller = sellerMapper.toSeller(sellerPostRequest);
         seller.setRegistrationDate(LocalDateTime.now());
         Seller createdSeller = sellerRepository.save(seller);
+        eventPublisher.publishEvent(new SellerChangedEvent(ChangeType.CREATED, createdSeller.getId()));
         return sellerMapper.toSellerResponse(createdSeller);
     }
 
@@ -84,39 +124,84 @@ public class SellerService {
     public SellerResponse updateSeller(long id, SellerPatchRequest sellerPatchRequest) {
         Seller seller = sellerRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
         sellerMapper.updateSeller(sellerPatchRequest, seller);
-        return sellerMapper.toSellerResponse(sellerRepository.save(seller));
+        Seller updatedSeller = sellerRepository.save(seller);
+        eventPublisher.publishEvent(new SellerChangedEvent(ChangeType.UPDATED, id));
+        return sellerMapper.toSellerResponse(updatedSeller);
     }
 
-    @Transactional
     public void deleteSeller(long id) {
-        if (!sellerRepository.existsById(id)) {
-            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
-        }
-        sellerRepository.deleteById(id);
+        requireExisting(id);
+        sellerPurgeService.purge(id);
+    }
+
+    public SellerPurgeResponse deleteSellerAsync(long id) {
+        requireExisting(id);
+        return sellerPurgeService.purgeAsync(id);
+    }
+
+    public SellerPurgeResponse getPurge(String purgeId) {
+        return sellerPurgeService.getPurge(purgeId).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Purge wasn't found."));
     }
 
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactionsOfSeller(long id) {
-        Seller seller = sellerRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
-        return seller.getTransactions().stream().map(transactionMapper::toTransactionResponse).collect(Collectors.toList());
+    public PageResponse<TransactionResponse> getTransactionsOfSeller(long id, LocalDateTime start, LocalDateTime end,
+                                                                     String cursor, Integer limit) {
+        RangeDate.requireOrdered(start, end);
+        int pageSize = paginationProperties.resolveLimit(limit);
+        requireExisting(id);
+        DateKeyset after = cursor == null ? DateKeyset.startingAt(start) : cursorCodec.decode(cursor, 2, DateKeyset::parse);
+        List<TransactionResponse> rows = transactionRepository.findPageOfSellerAfter(id, after.getDate(), after.getId(),
+                end == null ? DateKeyset.HORIZON : end, Limit.of(pageSize + 1));
+        return PageResponse.of(rows, pageSize, transaction -> cursorCodec.encode(transaction.getTransactionDate(), transaction.getId()));
     }
 
     @Transactional(readOnly = true)
     public SellerResponse getBestSeller(RangeDate rangeDate) {
-        Query query = entityManager.createNativeQuery(SQL_BEST_SELLER, Seller.class ).setParameter("start", rangeDate.getStart()).setParameter("end", rangeDate.getEnd());
-        List list = query.getResultList();
-        if (list.isEmpty()) {
-            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
-        }
-        return sellerMapper.toSellerResponse((Seller) list.getFirst());
+        AnalyticsKey key = AnalyticsKey.of(AnalyticsKey.Kind.BEST_SELLER, rangeDate.getStart(), rangeDate.getEnd(), null);
+        Optional<SellerResponse> seller = analyticsCache.get(key, () -> sellerAnalyticsRepository
+                .findBestSeller(rangeDate.getStart(), rangeDate.getEnd()));
+        return seller.orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
     }
 
     @Transactional(readOnly = true)
     public List<SellerResponse> getSellersSumLessThen(int sum, RangeDate rangeDate) {
-        Query query = entityManager.createNativeQuery(SQL_SUM_LESS_THEN, Seller.class).setParameter("maxSum", sum).setParameter("start", rangeDate.getStart()).setParameter("end", rangeDate.getEnd());
-        return (List<SellerResponse>) query.getResultList().stream()
-                .map(seller -> sellerMapper.toSellerResponse((Seller) seller))
-                .collect(Collectors.toList());
+        AnalyticsKey key = AnalyticsKey.of(AnalyticsKey.Kind.SUM_LESS_THEN, rangeDate.getStart(), rangeDate.getEnd(), sum);
+        return analyticsCache.get(key, () -> sellerAnalyticsRepository
+                .findSellersSumLessThen(sum, rangeDate.getStart(), rangeDate.getEnd()));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<SellerRankResponse> getTopSellers(LocalDateTime start, LocalDateTime end, PaymentType paymentType,
+                                                          Integer top, String cursor, Integer limit) {
+        RangeDate.requireOrdered(start, end);
+        int size = rankingProperties.resolveTop(top);
+        int pageSize = paginationProperties.resolveLimit(limit);
+        AnalyticsKey key = AnalyticsKey.of(AnalyticsKey.Kind.TOP_SELLERS, start, end, size, paymentType);
+        List<SellerRankResponse> ranking = analyticsCache.get(key, () -> sellerAnalyticsRepository
+                .findTopSellers(start, end, paymentType, size));
+        int from = cursor == null ? 0 : cursorCodec.decode(cursor, 2, parts -> indexAfter(ranking,
+                new BigDecimal(parts[0]), Long.parseLong(parts[1])));
+        List<SellerRankResponse> rows = ranking.subList(from, Math.min(ranking.size(), from + pageSize + 1));
+        return PageResponse.of(rows, pageSize, seller -> cursorCodec.encode(seller.getTotalAmount().toPlainString(), seller.getSellerId()));
+    }
+
+    public AnalyticsCacheStatsResponse getAnalyticsCacheStats() {
+        return analyticsCache.getStats();
+    }
+
+    private long decodeAfterId(String cursor) {
+        return cursor == null ? 0 : cursorCodec.decode(cursor, 1, parts -> Long.parseLong(parts[0]));
+    }
+
+    private static int indexAfter(List<SellerRankResponse> ranking, BigDecimal totalAmount, long sellerId) {
+        for (int i = 0; i < ranking.size(); ++i) {
+            SellerRankResponse seller = ranking.get(i);
+            int order = seller.getTotalAmount().compareTo(totalAmount);
+            if (order < 0 || order == 0 && seller.getSellerId() > sellerId) {
+                return i;
+            }
+        }
+        return ranking.size();
     }
 
     @Transactional(readOnly = true)
@@ -124,5 +209,19 @@ public class SellerService {
         return sellerRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
     }
 
+    protected void requireExisting(long id) {
+        if (!sellerIdRegistry.contains(id)) {
+            throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    protected Set<Long> findExistingIds(Collection<Long> ids) {
+        return ids.isEmpty() ? Set.of() : sellerIdRegistry.retainExisting(ids);
+    }
+
+    protected Seller getReference(long id) {
+        return sellerRepository.getReferenceById(id);
+    }
 
 }
@@ -0,0 +1,138 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.peretyatko.app.dto.RangeDate;
+import ru.peretyatko.app.dto.transaction.ExportFormat;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.model.PaymentType;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+@Service
+public class TransactionExportService {
+
+    public final static String SQL_EXPORT =
+            """
+            SELECT id, seller_id, amount, payment_type, transaction_date
+            FROM transactions
+            WHERE TRUE
+            """;
+
+    public final static String CSV_HEADER = "id,seller_id,amount,payment_type,transaction_date\n";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final int fetchSize;
+
+    public TransactionExportService(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public StreamingResponseBody export(ExportFormat format, Long sellerId, LocalDateTime start, LocalDateTime end) {
+        RangeDate.requireOrdered(start, end);
+        StringBuilder sql = new StringBuilder(SQL_EXPORT);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (sellerId != null) {
+            sql.append("AND seller_id = :sellerId\n");
+            params.addValue("sellerId", sellerId);
+        }
+        if (start != null) {
+            sql.append("AND transaction_date >= CAST(:start AS TIMESTAMP)\n");
+            params.addValue("start", start);
+        }
+        if (end != null) {
+            sql.append("AND transaction_date < CAST(:end AS TIMESTAMP)\n");
+            params.addValue("end", end);
+        }
+        sql.append("ORDER BY transaction_date, id");
+        return outputStream -> transactionTemplate.executeWithoutResult(status -> write(format, sql.toString(), params, outputStream));
+    }
+
+    private void write(ExportFormat format, String sql, MapSqlParameterSource params, OutputStream outputStream) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            NdjsonWriter ndjsonWriter = new NdjsonWriter(objectMapper, writer);
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+            }
+            RowCallbackHandler handler = new RowCallbackHandler() {
+                private long rows;
+
+                @Override
+                public void processRow(ResultSet rs) throws SQLException {
+                    TransactionResponse transaction = toTransactionResponse(rs);
+                    try {
+                        if (format == ExportFormat.CSV) {
+                            writeCsv(transaction, writer);
+                        } else {
+                            ndjsonWriter.write(transaction);
+                        }
+                        if (++rows % fetchSize == 0) {
+                            ndjsonWriter.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            jdbcTemplate.query(sql, params, handler);
+            ndjsonWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TransactionResponse toTransactionResponse(ResultSet rs) throws SQLException {
+        return new TransactionResponse(rs.getLong("id"),
+                rs.getLong("seller_id"),
+                rs.getDouble("amount"),
+                PaymentType.valueOf(rs.getString("payment_type")),
+                rs.getObject("transaction_date", LocalDateTime.class));
+    }
+
+    private void writeCsv(TransactionResponse transaction, Writer writer) throws IOException {
+        writer.write(Long.toString(transaction.getId()));
+        writer.write(',');
+        writer.write(Long.toString(transaction.getSellerId()));
+        writer.write(',');
+        writer.write(Double.toString(transaction.getAmount()));
+        writer.write(',');
+        writer.write(transaction.getPaymentType().name());
+        writer.write(',');
+        writer.write(transaction.getTransactionDate().toString());
+        writer.write('\n');
+    }
+
+}
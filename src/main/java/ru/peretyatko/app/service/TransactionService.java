@@ -1,25 +1,50 @@
 package ru.peretyatko.app.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.peretyatko.app.dto.EntityVersion;
+import ru.peretyatko.app.dto.PageResponse;
+import ru.peretyatko.app.dto.transaction.TransactionBatchError;
+import ru.peretyatko.app.dto.transaction.TransactionBatchResponse;
 import ru.peretyatko.app.dto.transaction.TransactionPatchRequest;
 import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
 import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.ingestion.IngestionProperties;
 import ru.peretyatko.app.mapper.TransactionMapper;
+import ru.peretyatko.app.model.PaymentType;
 import ru.peretyatko.app.model.Transaction;
-import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.pagination.CursorCodec;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.pagination.PaginationProperties;
+import ru.peretyatko.app.repository.Constraints;
 import ru.peretyatko.app.repository.TransactionRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "crm.service", histogram = true)
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
@@ -28,41 +53,160 @@ public class TransactionService {
 
     private final TransactionMapper transactionMapper;
 
+    private final CursorCodec cursorCodec;
+
+    private final PaginationProperties paginationProperties;
+
+    private final IngestionProperties ingestionProperties;
+
+    private final Validator validator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private final EntityManager entityManager;
+
     @Transactional(readOnly = true)
     public TransactionResponse getTransaction(long id) {
-        Transaction transaction = transactionRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found."));
-        return transactionMapper.toTransactionResponse(transaction);
+        return transactionRepository.findResponseById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found."));
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Optional<TransactionResponse> getTransactionIfModified(long id, Predicate<EntityVersion> notModified) {
+        if (notModified.test(getTransactionVersion(id))) {
+            return Optional.empty();
+        }
+        return Optional.of(getTransaction(id));
     }
 
     @Transactional(readOnly = true)
-    public List<TransactionResponse> getTransactions() {
-        return transactionRepository.findAll().stream().map(transactionMapper::toTransactionResponse).collect(Collectors.toList());
+    public EntityVersion getTransactionVersion(long id) {
+        return transactionRepository.findVersionById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found."));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<TransactionResponse> getTransactions(String cursor, Integer limit) {
+        int pageSize = paginationProperties.resolveLimit(limit);
+        DateKeyset after = cursor == null ? DateKeyset.first() : cursorCodec.decode(cursor, 2, DateKeyset::parse);
+        List<TransactionResponse> rows = transactionRepository.findPageAfter(after.getDate(), after.getId(), Limit.of(pageSize + 1));
+        return PageResponse.of(rows, pageSize, transaction -> cursorCodec.encode(transaction.getTransactionDate(), transaction.getId()));
     }
 
     @Transactional
     public TransactionResponse createTransaction(TransactionPostRequest transactionPostRequest) {
+        sellerService.requireExisting(transactionPostRequest.getSellerId());
         Transaction transaction = transactionMapper.toTransaction(transactionPostRequest);
-        Seller seller = sellerService.findById(transactionPostRequest.getSellerId());
-        transaction.setSeller(seller);
+        transaction.setSeller(sellerService.getReference(transactionPostRequest.getSellerId()));
         transaction.setTransactionDate(LocalDateTime.now());
-        Transaction createdTransaction = transactionRepository.save(transaction);
+        Transaction createdTransaction;
+        try {
+            createdTransaction = transactionRepository.saveAndFlush(transaction);
+        } catch (DataIntegrityViolationException e) {
+            if (Constraints.isForeignKeyViolation(e, Constraints.TRANSACTIONS_SELLER_FKEY)) {
+                throw new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.");
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new TransactionsChangedEvent(List.of(TransactionChange.created(createdTransaction))));
         return transactionMapper.toTransactionResponse(createdTransaction);
     }
 
+    @Transactional
+    public TransactionBatchResponse createTransactions(List<TransactionPostRequest> transactionPostRequests) {
+        int maxSize = ingestionProperties.getBatch().getMaxSize();
+        if (transactionPostRequests == null || transactionPostRequests.isEmpty() || transactionPostRequests.size() > maxSize) {
+            throw new ServiceException(HttpStatus.BAD_REQUEST, "Batch must contain between 1 and " + maxSize + " transactions.");
+        }
+        List<TransactionBatchError> errors = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < transactionPostRequests.size(); ++i) {
+            TransactionBatchError error = validate(i, transactionPostRequests.get(i));
+            if (error == null) {
+                validIndexes.add(i);
+            } else {
+                errors.add(error);
+            }
+        }
+
+        Set<Long> existingSellerIds = sellerService.findExistingIds(validIndexes.stream()
+                .map(i -> transactionPostRequests.get(i).getSellerId())
+                .collect(Collectors.toSet()));
+        LocalDateTime transactionDate = LocalDateTime.now();
+        List<Transaction> chunk = new ArrayList<>();
+        List<TransactionResponse> created = new ArrayList<>();
+        List<TransactionChange> changes = new ArrayList<>();
+        for (int i : validIndexes) {
+            TransactionPostRequest transactionPostRequest = transactionPostRequests.get(i);
+            if (!existingSellerIds.contains(transactionPostRequest.getSellerId())) {
+                errors.add(new TransactionBatchError(i, "Seller wasn't found.", Set.of("sellerId")));
+                continue;
+            }
+            Transaction transaction = transactionMapper.toTransaction(transactionPostRequest);
+            transaction.setSeller(sellerService.getReference(transactionPostRequest.getSellerId()));
+            transaction.setTransactionDate(transactionDate);
+            chunk.add(transaction);
+            if (chunk.size() == ingestionProperties.getBatch().getFlushSize()) {
+                created.addAll(persistChunk(chunk, changes));
+                chunk.clear();
+            }
+        }
+        created.addAll(persistChunk(chunk, changes));
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionsChangedEvent(changes));
+        }
+        return new TransactionBatchResponse(created, errors);
+    }
+
     @Transactional
     public TransactionResponse updateTransaction(long id, TransactionPatchRequest transactionPatchRequest) {
         Transaction transaction = transactionRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found."));
+        PaymentType previousPaymentType = transaction.getPaymentType();
+        double previousAmount = transaction.getAmount();
         transactionMapper.updateTransaction(transactionPatchRequest, transaction);
-        return transactionMapper.toTransactionResponse(transactionRepository.save(transaction));
+        Transaction updatedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(List.of(TransactionChange.updated(updatedTransaction, previousPaymentType, previousAmount))));
+        return transactionMapper.toTransactionResponse(updatedTransaction);
     }
 
     @Transactional
     public void deleteTransaction(long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found.");
+        Transaction transaction = transactionRepository.findById(id).orElseThrow(() -> new ServiceException(HttpStatus.NOT_FOUND, "Transaction wasn't found."));
+        transactionRepository.delete(transaction);
+        eventPublisher.publishEvent(new TransactionsChangedEvent(List.of(TransactionChange.deleted(transaction))));
+    }
+
+    private TransactionBatchError validate(int index, TransactionPostRequest transactionPostRequest) {
+        if (transactionPostRequest == null) {
+            return new TransactionBatchError(index, "Transaction cannot be null.", Set.of());
+        }
+        Set<ConstraintViolation<TransactionPostRequest>> violations = validator.validate(transactionPostRequest);
+        if (violations.isEmpty()) {
+            return null;
         }
-        transactionRepository.deleteById(id);
+        StringBuilder errorMsg = new StringBuilder();
+        for (ConstraintViolation<TransactionPostRequest> violation : violations) {
+            errorMsg.append(violation.getPropertyPath())
+                    .append(" - ").append(violation.getMessage())
+                    .append("; ");
+        }
+        Set<String> fieldsWithError = violations.stream()
+                .map(violation -> violation.getPropertyPath().toString())
+                .collect(Collectors.toSet());
+        return new TransactionBatchError(index, errorMsg.toString(), fieldsWithError);
     }
 
+    private List<TransactionResponse> persistChunk(List<Transaction> chunk, List<TransactionChange> changes) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        List<Transaction> createdTransactions = transactionRepository.saveAll(chunk);
+        entityManager.flush();
+        createdTransactions.forEach(transaction -> changes.add(TransactionChange.created(transaction)));
+        List<TransactionResponse> created = createdTransactions.stream()
+                .map(transactionMapper::toTransactionResponse)
+                .collect(Collectors.toList());
+        entityManager.clear();
+        return created;
+    }
 
 }
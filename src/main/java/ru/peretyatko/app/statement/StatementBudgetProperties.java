@@ -0,0 +1,25 @@
+package ru.peretyatko.app.statement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.statement-budget")
+public class StatementBudgetProperties {
+
+    private boolean enabled = true;
+
+    private int maxStatements = 10;
+
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int resolveBudget(String uri) {
+        return endpoints.getOrDefault(uri, maxStatements);
+    }
+
+}
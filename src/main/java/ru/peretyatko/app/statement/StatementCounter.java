@@ -0,0 +1,60 @@
+package ru.peretyatko.app.statement;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<List<Scope>> SCOPES = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<Scope> scopes = SCOPES.get();
+        for (Scope scope : scopes) {
+            scope.statements.add(sql);
+        }
+        return sql;
+    }
+
+    public Scope open() {
+        Scope scope = new Scope();
+        SCOPES.get().add(scope);
+        return scope;
+    }
+
+    public static class Scope implements AutoCloseable {
+
+        private final List<String> statements = new ArrayList<>();
+
+        public int getCount() {
+            return statements.size();
+        }
+
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        @Override
+        public void close() {
+            List<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,11 @@
+UPDATE sellers
+SET updated_at = updated_at AT TIME ZONE current_setting('TimeZone') AT TIME ZONE 'UTC';
+
+UPDATE transactions
+SET updated_at = updated_at AT TIME ZONE current_setting('TimeZone') AT TIME ZONE 'UTC';
+
+ALTER TABLE sellers
+    ALTER COLUMN updated_at SET DEFAULT (now() AT TIME ZONE 'UTC');
+
+ALTER TABLE transactions
+    ALTER COLUMN updated_at SET DEFAULT (now() AT TIME ZONE 'UTC');
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS transactions_transaction_date_id_idx ON transactions (transaction_date, id);
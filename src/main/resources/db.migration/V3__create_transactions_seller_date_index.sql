@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS transactions_seller_id_transaction_date_idx ON transactions (seller_id, transaction_date, id);
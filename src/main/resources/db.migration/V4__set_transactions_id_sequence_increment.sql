@@ -0,0 +1 @@
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
@@ -0,0 +1,9 @@
+DROP INDEX IF EXISTS transactions_transaction_date_id_idx;
+
+CREATE INDEX IF NOT EXISTS transactions_transaction_date_id_covering_idx
+    ON transactions (transaction_date, id) INCLUDE (seller_id, amount);
+
+DROP INDEX IF EXISTS transactions_seller_id_transaction_date_idx;
+
+CREATE INDEX IF NOT EXISTS transactions_seller_id_transaction_date_covering_idx
+    ON transactions (seller_id, transaction_date, id) INCLUDE (amount);
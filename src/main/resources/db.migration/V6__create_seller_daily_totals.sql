@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS seller_daily_totals (
+    seller_id BIGINT NOT NULL REFERENCES sellers ON DELETE CASCADE,
+    day DATE NOT NULL,
+    total_amount DECIMAL NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    PRIMARY KEY (seller_id, day)
+);
+
+CREATE INDEX IF NOT EXISTS seller_daily_totals_day_covering_idx
+    ON seller_daily_totals (day) INCLUDE (seller_id, total_amount, transaction_count);
+
+INSERT INTO seller_daily_totals (seller_id, day, total_amount, transaction_count)
+SELECT seller_id, CAST(transaction_date AS DATE), SUM(amount), COUNT(*)
+FROM transactions
+WHERE seller_id IS NOT NULL
+GROUP BY seller_id, CAST(transaction_date AS DATE);
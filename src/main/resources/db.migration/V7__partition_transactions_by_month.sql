@@ -0,0 +1,67 @@
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER INDEX transactions_pkey RENAME TO transactions_unpartitioned_pkey;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_seller_id_fkey TO transactions_unpartitioned_seller_id_fkey;
+DROP INDEX IF EXISTS transactions_transaction_date_id_covering_idx;
+DROP INDEX IF EXISTS transactions_seller_id_transaction_date_covering_idx;
+ALTER SEQUENCE transactions_id_seq OWNED BY NONE;
+
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_id_seq'),
+    seller_id BIGINT,
+    amount DECIMAL NOT NULL,
+    payment_type VARCHAR NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, transaction_date),
+    CONSTRAINT transactions_seller_id_fkey FOREIGN KEY (seller_id) REFERENCES sellers ON DELETE CASCADE
+) PARTITION BY RANGE (transaction_date);
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_transactions_partitions(from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_start DATE := date_trunc('month', from_month);
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE partition_start <= to_month LOOP
+        partition_name := 'transactions_' || to_char(partition_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            CREATE TEMP TABLE transactions_moved (LIKE transactions);
+            WITH moved AS (
+                DELETE FROM transactions_default
+                WHERE transaction_date >= partition_start
+                  AND transaction_date < partition_start + INTERVAL '1 month'
+                RETURNING *
+            )
+            INSERT INTO transactions_moved SELECT * FROM moved;
+            EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                    partition_name, partition_start, partition_start + INTERVAL '1 month');
+            INSERT INTO transactions SELECT * FROM transactions_moved;
+            DROP TABLE transactions_moved;
+            created := created + 1;
+        END IF;
+        partition_start := partition_start + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_transactions_partitions(
+        CAST(COALESCE(MIN(transaction_date), now()) AS DATE),
+        CAST(GREATEST(MAX(transaction_date), now() + INTERVAL '3 months') AS DATE))
+FROM transactions_unpartitioned;
+
+INSERT INTO transactions (id, seller_id, amount, payment_type, transaction_date)
+SELECT id, seller_id, amount, payment_type, transaction_date
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_id_seq OWNED BY transactions.id;
+
+CREATE INDEX IF NOT EXISTS transactions_transaction_date_id_covering_idx
+    ON transactions (transaction_date, id) INCLUDE (seller_id, amount);
+
+CREATE INDEX IF NOT EXISTS transactions_seller_id_transaction_date_covering_idx
+    ON transactions (seller_id, transaction_date, id) INCLUDE (amount);
+
+ANALYZE transactions;
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS transaction_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    change_type VARCHAR NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    seller_id BIGINT NOT NULL,
+    payment_type VARCHAR,
+    amount DECIMAL NOT NULL,
+    previous_payment_type VARCHAR,
+    previous_amount DECIMAL NOT NULL,
+    transaction_date TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
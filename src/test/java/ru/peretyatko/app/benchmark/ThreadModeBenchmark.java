@@ -0,0 +1,115 @@
+package ru.peretyatko.app.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.peretyatko.app.Main;
+import ru.peretyatko.app.load.LatencyRecorder;
+import ru.peretyatko.app.load.LocalPostgres;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ThreadModeBenchmark {
+
+    private static final int SELLERS = 1_000;
+
+    private static final int TRANSACTIONS = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 2_000);
+        Duration duration = Duration.ofSeconds(Long.getLong("benchmark.seconds", 30));
+        try (LocalPostgres postgres = LocalPostgres.start("benchmark")) {
+            boolean seeded = false;
+            for (boolean virtual : new boolean[]{false, true}) {
+                try (ConfigurableApplicationContext context = start(postgres, virtual)) {
+                    if (!seeded) {
+                        seed(context.getBean(JdbcTemplate.class));
+                        seeded = true;
+                    }
+                    int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+                    run(port, clients, Duration.ofSeconds(5));
+                    LatencyRecorder result = run(port, clients, duration);
+                    System.out.printf("%-8s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.1fms p99=%.1fms p999=%.1fms%n",
+                            virtual ? "virtual" : "platform", clients, result.getCount(), result.getErrors(),
+                            result.getCount() / (double) duration.toSeconds(),
+                            result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(0.999));
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LocalPostgres postgres, boolean virtual) {
+        return new SpringApplicationBuilder(Main.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtual)
+                .properties(postgres.springProperties())
+                .run();
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("""
+                INSERT INTO sellers (name, contact_info, registration_date)
+                SELECT 'Seller ' || g, 'seller' || g || '@mail.ru', now() - INTERVAL '1 year'
+                FROM generate_series(1, %d) g
+                """.formatted(SELLERS));
+        jdbcTemplate.execute("""
+                INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                SELECT 1 + g %% %d, 1 + g %% 1000, CASE WHEN g %% 2 = 0 THEN 'CASH' ELSE 'CARD' END,
+                       now() - (g || ' seconds')::INTERVAL
+                FROM generate_series(1, %d) g
+                """.formatted(SELLERS, TRANSACTIONS));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private static LatencyRecorder run(int port, int clients, Duration duration) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        LatencyRecorder recorder = new LatencyRecorder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; ++i) {
+                executor.submit(() -> client(httpClient, port, deadline, recorder));
+            }
+        }
+        return recorder;
+    }
+
+    private static void client(HttpClient httpClient, int port, long deadline, LatencyRecorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            long sellerId = 1 + random.nextInt(SELLERS);
+            HttpRequest request = random.nextInt(10) == 0
+                    ? HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/transactions"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"sellerId\": " + sellerId + ", \"amount\": 100, \"paymentType\": \"CASH\"}"))
+                            .build()
+                    : HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/sellers/" + sellerId + "/transactions?limit=20"))
+                            .GET()
+                            .build();
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    recorder.record(System.nanoTime() - started);
+                } else {
+                    recorder.recordError();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                recorder.recordError();
+            }
+        }
+    }
+
+}
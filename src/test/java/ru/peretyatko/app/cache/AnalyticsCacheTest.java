@@ -0,0 +1,172 @@
+package ru.peretyatko.app.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.model.Transaction;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyticsCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2024-10-01T15:30:00");
+
+    private static final AnalyticsKey PAST = AnalyticsKey.of(AnalyticsKey.Kind.BEST_SELLER,
+            LocalDateTime.parse("2024-09-01T00:00:00"), LocalDateTime.parse("2024-09-30T00:00:00"), null);
+
+    private static final AnalyticsKey LIVE = AnalyticsKey.of(AnalyticsKey.Kind.SUM_LESS_THEN,
+            LocalDateTime.parse("2024-09-01T00:00:00"), null, 100);
+
+    private MutableClock clock;
+
+    private AnalyticsCache analyticsCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        analyticsCache = new AnalyticsCache(new AnalyticsCacheProperties(), TransactionOperations.withoutTransaction(),
+                clock, Runnable::run);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void get_CachesPastRangeIndefinitely() {
+        analyticsCache.get(PAST, loads::incrementAndGet);
+        clock.advance(Duration.ofDays(30));
+        assertEquals(1, (int) analyticsCache.get(PAST, loads::incrementAndGet));
+        assertEquals(1, analyticsCache.getStats().getHits());
+        assertEquals(1, analyticsCache.getStats().getMisses());
+    }
+
+    @Test
+    public void get_ServesStaleLiveRangeAndRefreshes() {
+        analyticsCache.get(LIVE, loads::incrementAndGet);
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(1, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(1, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(2, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(1, analyticsCache.getStats().getStaleHits());
+        assertEquals(1, analyticsCache.getStats().getRefreshes());
+    }
+
+    @Test
+    public void get_RetriesRefreshRejectedByFullExecutor() {
+        AtomicInteger rejections = new AtomicInteger(1);
+        analyticsCache = new AnalyticsCache(new AnalyticsCacheProperties(), TransactionOperations.withoutTransaction(), clock,
+                task -> {
+                    if (rejections.getAndDecrement() > 0) {
+                        throw new RejectedExecutionException();
+                    }
+                    task.run();
+                });
+        analyticsCache.get(LIVE, loads::incrementAndGet);
+        clock.advance(Duration.ofSeconds(40));
+        assertEquals(1, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(1, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(2, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(1, analyticsCache.getStats().getRefreshes());
+    }
+
+    @Test
+    public void get_ReloadsLiveRangeAfterStaleWindow() {
+        analyticsCache.get(LIVE, loads::incrementAndGet);
+        clock.advance(Duration.ofMinutes(10));
+        assertEquals(2, (int) analyticsCache.get(LIVE, loads::incrementAndGet));
+        assertEquals(2, analyticsCache.getStats().getMisses());
+    }
+
+    @Test
+    public void onTransactionsChanged_InvalidatesOnlyCoveringPastRanges() {
+        AnalyticsKey other = AnalyticsKey.of(AnalyticsKey.Kind.BEST_SELLER,
+                LocalDateTime.parse("2024-08-01T00:00:00"), LocalDateTime.parse("2024-08-31T00:00:00"), null);
+        analyticsCache.get(PAST, loads::incrementAndGet);
+        analyticsCache.get(other, loads::incrementAndGet);
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", NOW, null);
+        Transaction transaction = new Transaction(1L, seller, 100, PaymentType.CASH, LocalDateTime.parse("2024-09-15T12:00:00"));
+        analyticsCache.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.deleted(transaction))));
+        assertEquals(3, (int) analyticsCache.get(PAST, loads::incrementAndGet));
+        assertEquals(2, (int) analyticsCache.get(other, loads::incrementAndGet));
+        assertEquals(1, analyticsCache.getStats().getInvalidations());
+    }
+
+    @Test
+    public void get_DoesNotCacheResultInvalidatedWhileLoading() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", NOW, null);
+        Transaction transaction = new Transaction(1L, seller, 100, PaymentType.CASH, LocalDateTime.parse("2024-09-15T12:00:00"));
+        analyticsCache.get(PAST, () -> {
+            analyticsCache.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.created(transaction))));
+            return loads.incrementAndGet();
+        });
+        assertEquals(2, (int) analyticsCache.get(PAST, loads::incrementAndGet));
+    }
+
+    @Test
+    public void onSellerChanged_InvalidatesEverythingButCreations() {
+        analyticsCache.get(PAST, loads::incrementAndGet);
+        analyticsCache.onSellerChanged(new SellerChangedEvent(ChangeType.CREATED, 2L));
+        assertEquals(1, (int) analyticsCache.get(PAST, loads::incrementAndGet));
+        analyticsCache.onSellerChanged(new SellerChangedEvent(ChangeType.UPDATED, 1L));
+        assertEquals(2, (int) analyticsCache.get(PAST, loads::incrementAndGet));
+    }
+
+    @Test
+    public void bindTo_ExposesCountersToMicrometer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        analyticsCache.bindTo(registry);
+        analyticsCache.get(PAST, loads::incrementAndGet);
+        analyticsCache.get(PAST, loads::incrementAndGet);
+        assertEquals(1, registry.get("crm.analytics.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("crm.analytics.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("crm.analytics.cache.size").gauge().value());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
+}
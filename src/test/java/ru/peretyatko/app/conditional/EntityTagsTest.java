@@ -0,0 +1,42 @@
+package ru.peretyatko.app.conditional;
+
+import org.junit.jupiter.api.Test;
+import ru.peretyatko.app.dto.EntityVersion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class EntityTagsTest {
+
+    private final EntityTags entityTags = new EntityTags();
+
+    @Test
+    public void tag_ChangesWithVersion() {
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00");
+        assertEquals("\"1.0\"", entityTags.tag(new EntityVersion(1L, 0L, date)));
+        assertNotEquals(entityTags.tag(new EntityVersion(1L, 0L, date)), entityTags.tag(new EntityVersion(1L, 1L, date)));
+    }
+
+    @Test
+    public void tagOfPage_ChangesWithAnyVersionOrMembership() {
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00");
+        List<EntityVersion> page = List.of(new EntityVersion(1L, 0L, date), new EntityVersion(2L, 0L, date));
+        assertEquals(entityTags.tag(page), entityTags.tag(List.of(new EntityVersion(1L, 0L, date), new EntityVersion(2L, 0L, date))));
+        assertNotEquals(entityTags.tag(page), entityTags.tag(List.of(new EntityVersion(1L, 0L, date), new EntityVersion(2L, 1L, date))));
+        assertNotEquals(entityTags.tag(page), entityTags.tag(List.of(new EntityVersion(1L, 0L, date))));
+    }
+
+    @Test
+    public void lastModifiedOfPage_ReturnsLatestUpdate() {
+        LocalDateTime earlier = LocalDateTime.parse("2024-10-01T15:30:00");
+        LocalDateTime later = LocalDateTime.parse("2024-10-02T09:00:00");
+        List<EntityVersion> page = List.of(new EntityVersion(1L, 0L, later), new EntityVersion(2L, 3L, earlier));
+        assertEquals(later.toInstant(ZoneOffset.UTC).toEpochMilli(), entityTags.lastModified(page));
+        assertEquals(-1, entityTags.lastModified(List.of()));
+    }
+
+}
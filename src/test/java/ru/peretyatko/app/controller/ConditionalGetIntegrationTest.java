@@ -0,0 +1,117 @@
+package ru.peretyatko.app.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class ConditionalGetIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:" + postgres.getJdbcUrl().substring("jdbc:".length()).split("\\?")[0]);
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+
+    @Test
+    public void getSeller_ReturnsNotModifiedForMatchingETag() throws Exception {
+        long id = createSeller();
+        MockHttpServletResponse response = mockMvc.perform(get("/api/sellers/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + id + ".0\""))
+                .andReturn().getResponse();
+        mockMvc.perform(get("/api/sellers/" + id).header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getSeller_ReturnsNotModifiedSinceLastModified() throws Exception {
+        long id = createSeller();
+        MockHttpServletResponse response = mockMvc.perform(get("/api/sellers/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        long lastModified = response.getDateHeader(HttpHeaders.LAST_MODIFIED);
+        assertTrue(Math.abs(System.currentTimeMillis() - lastModified) < Duration.ofMinutes(1).toMillis(),
+                "Last-Modified must be the wall-clock time of the write");
+        mockMvc.perform(get("/api/sellers/" + id).header(HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void getSeller_ReturnsBodyAfterUpdate() throws Exception {
+        long id = createSeller();
+        String etag = mockMvc.perform(get("/api/sellers/" + id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(patch("/api/sellers/" + id).contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/sellers/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + id + ".1\""))
+                .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    public void getTransaction_ReturnsNotModifiedForMatchingETag() throws Exception {
+        long sellerId = createSeller();
+        String body = mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sellerId\": " + sellerId + ", \"amount\": 100, \"paymentType\": \"CASH\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(body).get("id").asLong();
+        MockHttpServletResponse response = mockMvc.perform(get("/api/transactions/" + id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        mockMvc.perform(get("/api/transactions/" + id).header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/transactions/" + id).header(HttpHeaders.IF_MODIFIED_SINCE, response.getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+    }
+
+    private long createSeller() throws Exception {
+        String body = mockMvc.perform(post("/api/sellers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Conditional\", \"contactInfo\": \"conditional@mail.ru\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+}
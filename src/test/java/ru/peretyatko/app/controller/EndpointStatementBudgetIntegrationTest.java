@@ -0,0 +1,143 @@
+package ru.peretyatko.app.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.peretyatko.app.statement.MaxStatements;
+import ru.peretyatko.app.statement.StatementBudgetExtension;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+@ExtendWith(StatementBudgetExtension.class)
+class EndpointStatementBudgetIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long sellerId;
+
+    private long transactionId;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:" + postgres.getJdbcUrl().substring("jdbc:".length()).split("\\?")[0]);
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+
+    @BeforeEach
+    void seed() {
+        sellerId = jdbcTemplate.queryForObject("""
+                INSERT INTO sellers (name, contact_info, registration_date)
+                VALUES ('Budget', 'budget@mail.ru', ?)
+                RETURNING id
+                """, Long.class, LocalDateTime.parse("2023-10-01T15:30:00"));
+        transactionId = jdbcTemplate.queryForObject("""
+                INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                VALUES (?, 1500, 'CASH', ?)
+                RETURNING id
+                """, Long.class, sellerId, LocalDateTime.parse("2024-10-01T15:30:00"));
+    }
+
+    @Test
+    @MaxStatements(1)
+    public void getTransactions_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isNotEmpty());
+    }
+
+    @Test
+    @MaxStatements(2)
+    public void getTransaction_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/transactions/" + transactionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(1500));
+    }
+
+    @Test
+    @MaxStatements(1)
+    public void getTransaction_ReadsOnlyVersionWhenNotModified() throws Exception {
+        mockMvc.perform(get("/api/transactions/" + transactionId).header(HttpHeaders.IF_NONE_MATCH, "\"" + transactionId + ".0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @MaxStatements(3)
+    public void postTransaction_StaysWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sellerId\": " + sellerId + ", \"amount\": 100, \"paymentType\": \"CASH\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(100));
+    }
+
+    @Test
+    @MaxStatements(2)
+    public void getSeller_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/sellers/" + sellerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Budget"));
+    }
+
+    @Test
+    @MaxStatements(1)
+    public void getSeller_ReadsOnlyVersionWhenNotModified() throws Exception {
+        mockMvc.perform(get("/api/sellers/" + sellerId).header(HttpHeaders.IF_NONE_MATCH, "\"" + sellerId + ".0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @MaxStatements(2)
+    public void getSellers_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/sellers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isNotEmpty());
+    }
+
+    @Test
+    @MaxStatements(2)
+    public void getTransactionsOfSeller_StaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/sellers/" + sellerId + "/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].amount").value(1500));
+    }
+
+    @Test
+    @MaxStatements(1)
+    public void postSeller_StaysWithinBudget() throws Exception {
+        mockMvc.perform(post("/api/sellers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Dmitriy\", \"contactInfo\": \"+78005553535\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Dmitriy"));
+    }
+
+}
@@ -3,13 +3,14 @@ package ru.peretyatko.app.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mock;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import ru.peretyatko.app.dto.PageResponse;
 import ru.peretyatko.app.dto.seller.SellerPatchRequest;
 import ru.peretyatko.app.dto.seller.SellerPostRequest;
 import ru.peretyatko.app.dto.seller.SellerResponse;
@@ -24,6 +25,7 @@ import ru.peretyatko.app.dto.RangeDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,7 +39,7 @@ class SellerControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @Mock
+    @MockitoBean
     private SellerService sellerService;
 
     @Test
@@ -45,29 +47,29 @@ class SellerControllerTest {
         List<SellerResponse> sellers = List.of(new SellerResponse(1L,"Ivan", "+79833338712", LocalDateTime.parse("2023-10-01T15:30:00")),
                 new SellerResponse(2L, "Igor", "igor@mail.ru", LocalDateTime.parse("2023-10-01T15:30:00")),
                 new SellerResponse(3L, "Ilya", "ilya@mail.ru", LocalDateTime.parse("2023-10-01T15:30:00")));
-        when(sellerService.getSellers()).thenReturn(sellers);
+        when(sellerService.getSellersIfModified(isNull(), isNull(), any())).thenReturn(Optional.of(new PageResponse<>(sellers, null)));
         mockMvc.perform(get("/api/sellers").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(3))
-                .andExpect(jsonPath("$[0].name").value("Ivan"))
-                .andExpect(jsonPath("$[1].name").value("Igor"))
-                .andExpect(jsonPath("$[2].name").value("Ilya"));
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].name").value("Ivan"))
+                .andExpect(jsonPath("$.items[1].name").value("Igor"))
+                .andExpect(jsonPath("$.items[2].name").value("Ilya"));
     }
 
     @Test
     public void getSellers_ReturnsEmptyJson() throws Exception {
         List<SellerResponse> sellers = new ArrayList<>();
-        when(sellerService.getSellers()).thenReturn(sellers);
+        when(sellerService.getSellersIfModified(isNull(), isNull(), any())).thenReturn(Optional.of(new PageResponse<>(sellers, null)));
         mockMvc.perform(get("/api/sellers").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items").isEmpty());
     }
 
     @Test
     public void getSeller_ReturnsSeller() throws Exception {
         SellerResponse sellerResponse  = new SellerResponse(1L, "Ivan", "+79833338712", LocalDateTime.parse("2023-10-01T15:30:00"));
-        when(sellerService.getSeller(eq(1L))).thenReturn(sellerResponse);
+        when(sellerService.getSellerIfModified(eq(1L), any())).thenReturn(Optional.of(sellerResponse));
         mockMvc.perform(get("/api/sellers/1").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Ivan"));
@@ -75,7 +77,7 @@ class SellerControllerTest {
 
     @Test
     public void getSeller_ReturnsError() throws Exception {
-        when(sellerService.getSeller(eq(1L))).thenThrow(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
+        when(sellerService.getSellerIfModified(eq(1L), any())).thenThrow(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
         mockMvc.perform(get("/api/sellers/1").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Seller wasn't found."));
@@ -139,29 +141,29 @@ class SellerControllerTest {
         List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 1500, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")),
                 new TransactionResponse(2L, 1L, 2000, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")),
                 new TransactionResponse(3L, 1L, 3000, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")));
-        when(sellerService.getTransactionsOfSeller(eq(1L))).thenReturn(transactions);
+        when(sellerService.getTransactionsOfSeller(eq(1L), isNull(), isNull(), isNull(), isNull())).thenReturn(new PageResponse<>(transactions, null));
         mockMvc.perform(get("/api/sellers/1/transactions").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].amount").value(1500))
-                .andExpect(jsonPath("$[0].paymentType").value("CASH"))
-                .andExpect(jsonPath("$[1].amount").value(2000))
-                .andExpect(jsonPath("$[1].paymentType").value("CASH"))
-                .andExpect(jsonPath("$[2].amount").value(3000))
-                .andExpect(jsonPath("$[2].paymentType").value("CASH"));
+                .andExpect(jsonPath("$.items[0].amount").value(1500))
+                .andExpect(jsonPath("$.items[0].paymentType").value("CASH"))
+                .andExpect(jsonPath("$.items[1].amount").value(2000))
+                .andExpect(jsonPath("$.items[1].paymentType").value("CASH"))
+                .andExpect(jsonPath("$.items[2].amount").value(3000))
+                .andExpect(jsonPath("$.items[2].paymentType").value("CASH"));
     }
 
     @Test
     public void getTransactions_ReturnsEmptyJson() throws Exception {
-        when(sellerService.getTransactionsOfSeller(eq(1L))).thenReturn(new ArrayList<>());
+        when(sellerService.getTransactionsOfSeller(eq(1L), isNull(), isNull(), isNull(), isNull())).thenReturn(new PageResponse<>(new ArrayList<>(), null));
         mockMvc.perform(get("/api/sellers/1/transactions").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items").isEmpty());
     }
 
     @Test
     public void getTransactions_ReturnsError() throws Exception {
-        when(sellerService.getTransactionsOfSeller(eq(1L))).thenThrow(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
+        when(sellerService.getTransactionsOfSeller(eq(1L), isNull(), isNull(), isNull(), isNull())).thenThrow(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found."));
         mockMvc.perform(get("/api/sellers/1/transactions").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Seller wasn't found."));
@@ -1,13 +1,15 @@
 package ru.peretyatko.app.controller;
 
 import org.junit.jupiter.api.Test;
-import org.mockito.Mock;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.peretyatko.app.dto.PageResponse;
 import ru.peretyatko.app.dto.transaction.TransactionPatchRequest;
 import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
@@ -15,10 +17,13 @@ import ru.peretyatko.app.error.exception.ServiceException;
 import ru.peretyatko.app.model.PaymentType;
 import ru.peretyatko.app.model.Seller;
 import ru.peretyatko.app.service.TransactionService;
+import ru.peretyatko.app.statement.MaxStatements;
+import ru.peretyatko.app.statement.StatementBudgetExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -29,12 +34,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(StatementBudgetExtension.class)
 class TransactionControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @Mock
+    @MockitoBean
     private TransactionService transactionService;
 
     @Test
@@ -43,32 +49,32 @@ class TransactionControllerTest {
         List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 1500, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")),
                 new TransactionResponse(2L, 1L, 2000, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")),
                 new TransactionResponse(3l, 1L, 3000, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00")));
-        when(transactionService.getTransactions()).thenReturn(transactions);
+        when(transactionService.getTransactions(isNull(), isNull())).thenReturn(new PageResponse<>(transactions, null));
         mockMvc.perform(get("/api/transactions").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(3))
-                .andExpect(jsonPath("$[0].amount").value(1500))
-                .andExpect(jsonPath("$[0].paymentType").value("CASH"))
-                .andExpect(jsonPath("$[1].amount").value(2000))
-                .andExpect(jsonPath("$[1].paymentType").value("CASH"))
-                .andExpect(jsonPath("$[2].amount").value(3000))
-                .andExpect(jsonPath("$[2].paymentType").value("CASH"));
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.items[0].amount").value(1500))
+                .andExpect(jsonPath("$.items[0].paymentType").value("CASH"))
+                .andExpect(jsonPath("$.items[1].amount").value(2000))
+                .andExpect(jsonPath("$.items[1].paymentType").value("CASH"))
+                .andExpect(jsonPath("$.items[2].amount").value(3000))
+                .andExpect(jsonPath("$.items[2].paymentType").value("CASH"));
     }
 
     @Test
     public void getTransactions_ReturnsEmptyJson() throws Exception {
-        when(transactionService.getTransactions()).thenReturn(new ArrayList<>());
+        when(transactionService.getTransactions(isNull(), isNull())).thenReturn(new PageResponse<>(new ArrayList<>(), null));
         mockMvc.perform(get("/api/transactions").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items").isEmpty());
     }
 
     @Test
     public void getTransaction_ReturnsTransaction() throws Exception {
         Seller seller  = new Seller(1L, "Ivan", "+79833338712", LocalDateTime.parse("2023-10-01T15:30:00"), null);
         TransactionResponse transaction = new TransactionResponse(1L, 1L, 1500, PaymentType.CASH, LocalDateTime.parse("2024-10-01T15:30:00"));
-        when(transactionService.getTransaction(eq(1L))).thenReturn(transaction);
+        when(transactionService.getTransactionIfModified(eq(1L), any())).thenReturn(Optional.of(transaction));
         mockMvc.perform(get("/api/transactions/1").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.amount").value(1500))
@@ -77,7 +83,7 @@ class TransactionControllerTest {
 
     @Test
     public void getTransaction_ReturnsError() throws Exception {
-        when(transactionService.getTransaction(eq(1L))).thenThrow(new ServiceException(HttpStatus.NOT_FOUND,"Transaction wasn't found."));
+        when(transactionService.getTransactionIfModified(eq(1L), any())).thenThrow(new ServiceException(HttpStatus.NOT_FOUND,"Transaction wasn't found."));
         mockMvc.perform(get("/api/transactions/1").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Transaction wasn't found."));
@@ -154,4 +160,14 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.message").value("Transaction wasn't found."));
     }
 
-}
\ No newline at end of file
+    @Test
+    @MaxStatements(0)
+    public void exportTransactions_ReturnsErrorOnInvalidRange() throws Exception {
+        mockMvc.perform(get("/api/transactions/export")
+                        .param("start", "2024-10-02T00:00:00")
+                        .param("end", "2024-10-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Start must be before end."));
+    }
+
+}
@@ -0,0 +1,46 @@
+package ru.peretyatko.app.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class DbGatePostProcessorTest {
+
+    private DbGatePostProcessor postProcessor;
+
+    @BeforeEach
+    public void setUp() {
+        postProcessor = new DbGatePostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("app.db-gate.max-concurrency", "3"));
+    }
+
+    @Test
+    public void postProcessAfterInitialization_GatesPlainDataSource() {
+        Object bean = postProcessor.postProcessAfterInitialization(mock(DataSource.class), "dataSource");
+        GatedDataSource gatedDataSource = assertInstanceOf(GatedDataSource.class, bean);
+        assertEquals("primary", gatedDataSource.getName());
+        assertEquals(3, gatedDataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void postProcessAfterInitialization_LeavesRoutingDataSourceUngated() {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), List.of(mock(DataSource.class)));
+        assertSame(routingDataSource, postProcessor.postProcessAfterInitialization(routingDataSource, "dataSource"));
+    }
+
+    @Test
+    public void postProcessAfterInitialization_SkipsGateWhenDisabled() {
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("app.db-gate.enabled", "false"));
+        DataSource dataSource = mock(DataSource.class);
+        assertSame(dataSource, postProcessor.postProcessAfterInitialization(dataSource, "dataSource"));
+    }
+
+}
@@ -0,0 +1,53 @@
+package ru.peretyatko.app.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GatedDataSourceTest {
+
+    @Test
+    public void getConnection_ReleasesPermitOnceOnClose() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        GatedDataSource gatedDataSource = new GatedDataSource("primary", target, 2, Duration.ofMillis(10));
+        Connection gated = gatedDataSource.getConnection();
+        assertEquals(1, gatedDataSource.getAvailablePermits());
+        gated.close();
+        gated.close();
+        assertEquals(2, gatedDataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    public void getConnection_ThrowsWhenGateIsFull() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        GatedDataSource gatedDataSource = new GatedDataSource("primary", target, 1, Duration.ofMillis(10));
+        Connection first = gatedDataSource.getConnection();
+        assertThrows(DbGateTimeoutException.class, gatedDataSource::getConnection);
+        first.close();
+        gatedDataSource.getConnection().close();
+    }
+
+    @Test
+    public void getConnection_ReleasesPermitWhenTargetFails() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("Connection refused"));
+        GatedDataSource gatedDataSource = new GatedDataSource("primary", target, 1, Duration.ofMillis(10));
+        assertThrows(SQLException.class, gatedDataSource::getConnection);
+        assertEquals(1, gatedDataSource.getAvailablePermits());
+    }
+
+}
@@ -0,0 +1,162 @@
+package ru.peretyatko.app.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource first;
+
+    private DataSource second;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        primary = dataSource();
+        first = dataSource();
+        second = dataSource();
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(first, second));
+        routingDataSource.setDefaultAutoCommit(true);
+        routingDataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReplicaRoutingDataSource.setPrimaryPinned(false);
+    }
+
+    @Test
+    public void getConnection_SpreadsReadOnlyConnectionsAcrossReplicas() throws SQLException {
+        use(true);
+        use(true);
+        verify(first).getConnection();
+        verify(second).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void getConnection_KeepsWritesOnPrimary() throws SQLException {
+        use(false);
+        verify(primary).getConnection();
+        verify(first, never()).getConnection();
+        verify(second, never()).getConnection();
+    }
+
+    @Test
+    public void getConnection_UsesPrimaryWhenPinned() throws SQLException {
+        ReplicaRoutingDataSource.setPrimaryPinned(true);
+        use(true);
+        verify(primary).getConnection();
+        verify(first, never()).getConnection();
+    }
+
+    @Test
+    public void runOnPrimary_PinsOnlyForTheAction() throws SQLException {
+        ReplicaRoutingDataSource.runOnPrimary(() -> {
+            try {
+                use(true);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        verify(primary).getConnection();
+        use(true);
+        verify(first).getConnection();
+    }
+
+    @Test
+    public void runOnPrimary_KeepsExistingPin() throws SQLException {
+        ReplicaRoutingDataSource.setPrimaryPinned(true);
+        ReplicaRoutingDataSource.runOnPrimary(() -> {
+        });
+        use(true);
+        verify(primary).getConnection();
+        verify(first, never()).getConnection();
+    }
+
+    @Test
+    public void getConnection_SkipsUnhealthyReplicas() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        routingDataSource.checkHealth(Duration.ofSeconds(1));
+        assertEquals(1, routingDataSource.getHealthyReplicaCount());
+        use(true);
+        use(true);
+        verify(second, times(3)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void getConnection_FallsBackToPrimaryWhenReplicaFails() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+        use(true);
+        use(true);
+        verify(primary, times(2)).getConnection();
+        assertEquals(0, routingDataSource.getHealthyReplicaCount());
+    }
+
+    @Test
+    public void getConnection_GatesEachTargetSeparately() throws SQLException {
+        GatedDataSource gatedPrimary = new GatedDataSource("primary", primary, 1, Duration.ofMillis(10));
+        GatedDataSource gatedReplica = new GatedDataSource("replica-0", first, 1, Duration.ofMillis(10));
+        ReplicaRoutingDataSource gatedRouting = new ReplicaRoutingDataSource(gatedPrimary, List.of(gatedReplica));
+        gatedRouting.setDefaultAutoCommit(true);
+        gatedRouting.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        try (Connection read = gatedRouting.getConnection()) {
+            read.setReadOnly(true);
+            read.createStatement();
+            assertEquals(0, gatedReplica.getAvailablePermits());
+            try (Connection write = gatedRouting.getConnection()) {
+                write.createStatement();
+                assertEquals(0, gatedPrimary.getAvailablePermits());
+            }
+        }
+        assertEquals(1, gatedPrimary.getAvailablePermits());
+        assertEquals(1, gatedReplica.getAvailablePermits());
+    }
+
+    @Test
+    public void getConnection_KeepsBusyReplicaHealthy() throws SQLException {
+        when(first.getConnection()).thenThrow(new DbGateTimeoutException("Database is busy, try again later."));
+        routingDataSource.checkHealth(Duration.ofSeconds(1));
+        assertEquals(2, routingDataSource.getHealthyReplicaCount());
+        assertThrows(DbGateTimeoutException.class, () -> use(true));
+        assertEquals(2, routingDataSource.getHealthyReplicaCount());
+        verify(primary, never()).getConnection();
+    }
+
+    private void use(boolean readOnly) throws SQLException {
+        try (Connection connection = routingDataSource.getConnection()) {
+            connection.setReadOnly(readOnly);
+            connection.createStatement();
+        }
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,92 @@
+package ru.peretyatko.app.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:12");
+
+    @Container
+    private static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:12");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:" + primary.getJdbcUrl().substring("jdbc:".length()).split("\\?")[0]);
+        registry.add("spring.r2dbc.username", primary::getUsername);
+        registry.add("spring.r2dbc.password", primary::getPassword);
+        registry.add("app.replicas.enabled", () -> true);
+        registry.add("app.replicas.read-your-writes-window", () -> "1m");
+        registry.add("app.replicas.nodes[0].url", replica::getJdbcUrl);
+        registry.add("app.replicas.nodes[0].username", replica::getUsername);
+        registry.add("app.replicas.nodes[0].password", replica::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .locations("filesystem:src/main/resources/db.migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    public void getSeller_ReadsFromReplica() throws Exception {
+        long id = createSeller(null);
+        mockMvc.perform(get("/api/sellers/" + id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void getSeller_ReadsOwnWritesFromPrimary() throws Exception {
+        long id = createSeller("client-1");
+        mockMvc.perform(get("/api/sellers/" + id).header("X-Client-Id", "client-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Replica"));
+        mockMvc.perform(get("/api/sellers/" + id).header("X-Client-Id", "client-2"))
+                .andExpect(status().isNotFound());
+    }
+
+    private long createSeller(String clientId) throws Exception {
+        var request = post("/api/sellers").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Replica\", \"contactInfo\": \"replica@mail.ru\"}");
+        if (clientId != null) {
+            request.header("X-Client-Id", clientId);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+}
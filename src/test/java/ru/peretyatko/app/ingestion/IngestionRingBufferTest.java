@@ -0,0 +1,67 @@
+package ru.peretyatko.app.ingestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestionRingBufferTest {
+
+    @Test
+    public void offer_RejectsWhenFull() {
+        IngestionRingBuffer<Integer> buffer = new IngestionRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertTrue(buffer.offer(4));
+        assertEquals(3, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void drainTo_ReceivesEveryItemFromConcurrentProducers() throws Exception {
+        IngestionRingBuffer<Integer> buffer = new IngestionRingBuffer<>(64);
+        int producers = 8;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; ++p) {
+            int offset = p * perProducer;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perProducer; ++i) {
+                    while (!buffer.offer(offset + i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        Set<Integer> received = new HashSet<>();
+        List<Integer> group = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            group.clear();
+            buffer.drainTo(group, 16);
+            received.addAll(group);
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(producers * perProducer, received.size());
+        assertEquals(0, buffer.size());
+    }
+
+}
@@ -0,0 +1,217 @@
+package ru.peretyatko.app.ingestion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBehindIngestionTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final SellerIdRegistry sellerIdRegistry = mock(SellerIdRegistry.class);
+
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    };
+
+    private IngestionProperties.WriteBehind properties;
+
+    private WriteBehindIngestion writeBehindIngestion;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new IngestionProperties.WriteBehind();
+        properties.setEnabled(true);
+        properties.setBufferSize(4);
+        writeBehindIngestion = new WriteBehindIngestion(properties, jdbcTemplate, transactions, eventPublisher, sellerIdRegistry);
+        when(sellerIdRegistry.contains(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        writeBehindIngestion.stop();
+    }
+
+    @Test
+    public void writeNextGroup_InsertsGroupWithOneStatement() throws Exception {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenReturn(List.of(100L));
+        writeBehindIngestion.open();
+        CompletableFuture<TransactionResponse> first = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        CompletableFuture<TransactionResponse> second = writeBehindIngestion.submitAsync(new TransactionPostRequest(2L, 200, PaymentType.CARD));
+        assertEquals(2, writeBehindIngestion.writeNextGroup());
+        assertEquals(51L, first.get().getId());
+        assertEquals(52L, second.get().getId());
+        assertEquals(2L, second.get().getSellerId());
+        verify(jdbcTemplate).update(any(PreparedStatementCreator.class));
+        verify(eventPublisher).publishEvent(any(TransactionsChangedEvent.class));
+    }
+
+    @Test
+    public void writeNextGroup_TakesIdsFromOneSequenceBlock() throws Exception {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenReturn(List.of(100L), List.of(250L));
+        writeBehindIngestion.open();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < WriteBehindIngestion.ID_BLOCK_SIZE + 1; ++i) {
+            CompletableFuture<TransactionResponse> result = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+            writeBehindIngestion.writeNextGroup();
+            ids.add(result.get().getId());
+        }
+        assertEquals(51L, ids.getFirst());
+        assertEquals(100L, ids.get(WriteBehindIngestion.ID_BLOCK_SIZE - 1));
+        assertEquals(201L, ids.getLast());
+        verify(jdbcTemplate, times(2)).queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1));
+    }
+
+    @Test
+    public void writeNextGroup_RetriesRowsOneByOneWhenGroupFails() throws Exception {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenReturn(List.of(100L));
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class)))
+                .thenThrow(sellerForeignKeyViolation())
+                .thenReturn(1)
+                .thenThrow(sellerForeignKeyViolation());
+        writeBehindIngestion.open();
+        CompletableFuture<TransactionResponse> valid = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        CompletableFuture<TransactionResponse> orphan = writeBehindIngestion.submitAsync(new TransactionPostRequest(2L, 200, PaymentType.CARD));
+        writeBehindIngestion.writeNextGroup();
+        assertEquals(53L, valid.get().getId());
+        ExecutionException exception = assertThrows(ExecutionException.class, orphan::get);
+        ServiceException cause = assertInstanceOf(ServiceException.class, exception.getCause());
+        assertEquals(HttpStatus.NOT_FOUND.value(), cause.getCode());
+    }
+
+    @Test
+    public void writeNextGroup_PropagatesOtherIntegrityViolations() {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenReturn(List.of(50L));
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("not-null",
+                new SQLException("ERROR: null value in column \"payment_type\" violates not-null constraint", "23502"));
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenThrow(notNull);
+        writeBehindIngestion.open();
+        CompletableFuture<TransactionResponse> result = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        writeBehindIngestion.writeNextGroup();
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertSame(notNull, exception.getCause());
+    }
+
+    @Test
+    public void writeNextGroup_FailsGroupOnError() {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1)))
+                .thenThrow(new StackOverflowError());
+        writeBehindIngestion.open();
+        CompletableFuture<TransactionResponse> result = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        assertEquals(1, writeBehindIngestion.writeNextGroup());
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(StackOverflowError.class, exception.getCause());
+    }
+
+    @Test
+    public void submit_ReturnsErrorOnTimeoutAndSkipsRow() {
+        properties.setSubmitTimeout(Duration.ofMillis(10));
+        writeBehindIngestion.open();
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            writeBehindIngestion.submit(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getCode());
+        assertEquals(1, writeBehindIngestion.writeNextGroup());
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    public void submit_WaitsForGroupAlreadyClaimedByWriter() {
+        properties.setSubmitTimeout(Duration.ofMillis(50));
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return List.of(50L);
+        });
+        writeBehindIngestion.start();
+        TransactionResponse result = writeBehindIngestion.submit(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        assertEquals(1L, result.getId());
+        verify(jdbcTemplate).update(any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    public void submit_ReturnsErrorWhenBufferIsFull() {
+        writeBehindIngestion.open();
+        for (int i = 0; i < 4; ++i) {
+            writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        }
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getCode());
+    }
+
+    @Test
+    public void submit_ReturnsShutdownErrorWhenStopped() {
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH));
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getCode());
+        assertEquals("Ingestion is shutting down.", exception.getMessage());
+    }
+
+    @Test
+    public void submit_CompletesWhenWriterCommitsGroup() throws Exception {
+        when(jdbcTemplate.queryForList(eq(WriteBehindIngestion.SQL_NEXT_IDS), eq(Long.class), eq(1))).thenReturn(List.of(50L));
+        writeBehindIngestion.start();
+        TransactionResponse result = writeBehindIngestion.submitAsync(new TransactionPostRequest(1L, 100, PaymentType.CASH))
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(1L, result.getId());
+    }
+
+    @Test
+    public void submit_ReturnsErrorOnUnknownSeller() {
+        when(sellerIdRegistry.contains(eq(3L))).thenReturn(false);
+        writeBehindIngestion.open();
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            writeBehindIngestion.submit(new TransactionPostRequest(3L, 100, PaymentType.CASH));
+        });
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getCode());
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+    }
+
+    private static DataIntegrityViolationException sellerForeignKeyViolation() {
+        return new DataIntegrityViolationException("foreign key", new SQLException(
+                "ERROR: insert or update on table \"transactions_default\" violates foreign key constraint \"transactions_seller_id_fkey\"",
+                "23503"));
+    }
+
+}
@@ -0,0 +1,76 @@
+package ru.peretyatko.app.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyRecorder {
+
+    private static final int LINEAR_BITS = 10;
+
+    private static final int SUB_BUCKET_BITS = LINEAR_BITS - 1;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int MAX_MAGNITUDE = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray((1 << LINEAR_BITS) + (MAX_MAGNITUDE - LINEAR_BITS + 1) * SUB_BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long nanos) {
+        buckets.incrementAndGet(indexOf(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+        count.increment();
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double percentileMillis(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); ++i) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return valueOf(i) / 1000.0;
+            }
+        }
+        return valueOf(buckets.length() - 1) / 1000.0;
+    }
+
+    private static int indexOf(long micros) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude < LINEAR_BITS) {
+            return (int) micros;
+        }
+        magnitude = Math.min(magnitude, MAX_MAGNITUDE);
+        int subBucket = (int) ((micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (1 << LINEAR_BITS) + (magnitude - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long valueOf(int index) {
+        if (index < 1 << LINEAR_BITS) {
+            return index;
+        }
+        int offset = index - (1 << LINEAR_BITS);
+        int magnitude = offset / SUB_BUCKETS + LINEAR_BITS;
+        long subBucket = offset % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (magnitude - SUB_BUCKET_BITS);
+    }
+
+}
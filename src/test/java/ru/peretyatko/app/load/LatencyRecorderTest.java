@@ -0,0 +1,32 @@
+package ru.peretyatko.app.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyRecorderTest {
+
+    @Test
+    public void percentileMillis_ReturnsRankedLatencies() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 1000; ++i) {
+            recorder.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(1000, recorder.getCount());
+        assertEquals(500, recorder.percentileMillis(0.50), 500 * 0.01);
+        assertEquals(990, recorder.percentileMillis(0.99), 990 * 0.01);
+        assertEquals(999, recorder.percentileMillis(0.999), 999 * 0.01);
+    }
+
+    @Test
+    public void percentileMillis_IsExactBelowOneMillisecond() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(TimeUnit.MICROSECONDS.toNanos(250));
+        recorder.recordError();
+        assertEquals(0.25, recorder.percentileMillis(0.5));
+        assertEquals(1, recorder.getErrors());
+    }
+
+}
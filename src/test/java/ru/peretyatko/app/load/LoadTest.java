@@ -0,0 +1,182 @@
+package ru.peretyatko.app.load;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.peretyatko.app.Main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LoadTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    private final LoadWorkload workload;
+
+    private final Map<LoadWorkload.Operation, LatencyRecorder> recorders = new EnumMap<>(LoadWorkload.Operation.class);
+
+    private LoadTest(int port, LoadWorkload workload) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUrl = "http://localhost:" + port;
+        this.workload = workload;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadWorkload workload = LoadWorkload.fromSystemProperties();
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmupSeconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 60));
+        try (LocalPostgres postgres = LocalPostgres.start("load");
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                     .properties("server.port=0")
+                     .properties(postgres.springProperties())
+                     .run()) {
+            workload.seed(context.getBean(JdbcTemplate.class));
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            new LoadTest(port, workload).run(warmup);
+            LoadTest loadTest = new LoadTest(port, workload);
+            loadTest.run(duration);
+            String report = loadTest.report(duration);
+            System.out.print(report);
+            String reportFile = System.getProperty("load.report");
+            if (reportFile != null) {
+                Path path = Path.of(reportFile);
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                Files.writeString(path, report);
+            }
+        }
+    }
+
+    private void run(Duration duration) {
+        for (LoadWorkload.Operation operation : LoadWorkload.Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < workload.getClients(); ++i) {
+                Random random = new Random(workload.getSeed() + i);
+                executor.submit(() -> client(random, deadline));
+            }
+        }
+    }
+
+    private void client(Random random, long deadline) {
+        Deque<Long> createdTransactions = new ArrayDeque<>();
+        while (System.nanoTime() < deadline) {
+            LoadWorkload.Operation operation = workload.next(random);
+            if (operation == LoadWorkload.Operation.DELETE_TRANSACTION && createdTransactions.isEmpty()) {
+                operation = LoadWorkload.Operation.CREATE_TRANSACTION;
+            }
+            HttpRequest request = request(operation, random, createdTransactions);
+            LatencyRecorder recorder = recorders.get(operation);
+            long started = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                long elapsed = System.nanoTime() - started;
+                if (response.statusCode() >= 500 || (response.statusCode() >= 400 && operation.isWrite())) {
+                    recorder.recordError();
+                    continue;
+                }
+                recorder.record(elapsed);
+                if (operation == LoadWorkload.Operation.CREATE_TRANSACTION) {
+                    Matcher matcher = ID.matcher(response.body());
+                    if (matcher.find()) {
+                        createdTransactions.push(Long.parseLong(matcher.group(1)));
+                    }
+                }
+            } catch (IOException e) {
+                recorder.recordError();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private HttpRequest request(LoadWorkload.Operation operation, Random random, Deque<Long> createdTransactions) {
+        long sellerId = workload.randomSellerId(random);
+        return switch (operation) {
+            case GET_SELLER -> get("/api/sellers/" + sellerId);
+            case LIST_SELLERS -> get("/api/sellers?limit=50");
+            case CREATE_SELLER -> send("POST", "/api/sellers",
+                    "{\"name\": \"Load " + random.nextInt(1_000_000) + "\", \"contactInfo\": \"load@mail.ru\"}");
+            case UPDATE_SELLER -> send("PATCH", "/api/sellers/" + sellerId,
+                    "{\"contactInfo\": \"+7900" + (1_000_000 + random.nextInt(9_000_000)) + "\"}");
+            case GET_TRANSACTION -> get("/api/transactions/" + workload.randomTransactionId(random));
+            case CREATE_TRANSACTION -> send("POST", "/api/transactions",
+                    "{\"sellerId\": " + sellerId + ", \"amount\": " + (1 + random.nextInt(10_000))
+                            + ", \"paymentType\": \"" + (random.nextBoolean() ? "CASH" : "CARD") + "\"}");
+            case DELETE_TRANSACTION -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/transactions/" + createdTransactions.pop()))
+                    .DELETE()
+                    .build();
+            case SELLER_TRANSACTIONS -> get("/api/sellers/" + sellerId + "/transactions?limit=20");
+            case BEST_SELLER -> send("GET", "/api/sellers/best", rangeBody(random));
+            case SUM_LESS_THEN -> send("GET", "/api/sellers/sumLessThen/" + (1_000 * (1 + random.nextInt(100))), rangeBody(random));
+        };
+    }
+
+    private String rangeBody(Random random) {
+        LocalDate[] range = workload.randomRange(random);
+        return "{\"start\": \"" + range[0].atStartOfDay() + "\", \"end\": \"" + range[1].atStartOfDay() + "\"}";
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String report(Duration duration) {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "clients=%d seconds=%d seed=%d%n%-20s %10s %8s %10s %10s %10s %10s%n",
+                workload.getClients(), duration.toSeconds(), workload.getSeed(),
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<LoadWorkload.Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            if (recorder.getCount() + recorder.getErrors() == 0) {
+                continue;
+            }
+            requests += recorder.getCount();
+            errors += recorder.getErrors();
+            report.append(String.format(Locale.ROOT, "%-20s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), recorder.getCount(), recorder.getErrors(),
+                    recorder.getCount() / (double) duration.toSeconds(), recorder.percentileMillis(0.50),
+                    recorder.percentileMillis(0.99), recorder.percentileMillis(0.999)));
+        }
+        report.append(String.format(Locale.ROOT, "%-20s %10d %8d %10.1f%n", "total", requests, errors,
+                requests / (double) duration.toSeconds()));
+        return report.toString();
+    }
+
+}
@@ -0,0 +1,160 @@
+package ru.peretyatko.app.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+public class LoadWorkload {
+
+    public enum Operation {
+        GET_SELLER(false),
+        LIST_SELLERS(false),
+        CREATE_SELLER(true),
+        UPDATE_SELLER(true),
+        GET_TRANSACTION(false),
+        CREATE_TRANSACTION(true),
+        DELETE_TRANSACTION(true),
+        SELLER_TRANSACTIONS(false),
+        BEST_SELLER(false),
+        SUM_LESS_THEN(false);
+
+        private final boolean write;
+
+        Operation(boolean write) {
+            this.write = write;
+        }
+
+        public boolean isWrite() {
+            return write;
+        }
+    }
+
+    public static final String DEFAULT_MIX = "get_seller=15,list_sellers=5,create_seller=2,update_seller=3,"
+            + "get_transaction=15,create_transaction=25,delete_transaction=5,seller_transactions=15,"
+            + "best_seller=8,sum_less_then=7";
+
+    private final int clients;
+
+    private final long seed;
+
+    private final int sellers;
+
+    private final int transactions;
+
+    private final int days;
+
+    private final int rangePool;
+
+    private final Map<Operation, Integer> mix;
+
+    private final int totalWeight;
+
+    private long maxSellerId;
+
+    private long maxTransactionId;
+
+    private LocalDate today;
+
+    public LoadWorkload(int clients, long seed, int sellers, int transactions, int days, int rangePool, Map<Operation, Integer> mix) {
+        this.clients = clients;
+        this.seed = seed;
+        this.sellers = sellers;
+        this.transactions = transactions;
+        this.days = days;
+        this.rangePool = rangePool;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Workload mix must contain at least one operation with a positive weight.");
+        }
+    }
+
+    public static LoadWorkload fromSystemProperties() {
+        return new LoadWorkload(
+                Integer.getInteger("load.clients", 200),
+                Long.getLong("load.seed", 42),
+                Integer.getInteger("load.sellers", 5_000),
+                Integer.getInteger("load.transactions", 1_000_000),
+                Integer.getInteger("load.days", 365),
+                Integer.getInteger("load.rangePool", 20),
+                parseMix(System.getProperty("load.mix", DEFAULT_MIX)));
+    }
+
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    public void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sellers", Integer.class);
+        if (existing == null || existing == 0) {
+            jdbcTemplate.execute("""
+                    INSERT INTO sellers (name, contact_info, registration_date)
+                    SELECT 'Seller ' || g, 'seller' || g || '@mail.ru', now() - INTERVAL '%d days'
+                    FROM generate_series(1, %d) g
+                    """.formatted(days + 1, sellers));
+            jdbcTemplate.queryForObject("SELECT create_transactions_partitions(CAST(now() - INTERVAL '%d days' AS DATE), CAST(now() AS DATE))"
+                    .formatted(days), Integer.class);
+            jdbcTemplate.execute("""
+                    SELECT setseed(%s);
+                    INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                    SELECT 1 + floor(random() * %d)::BIGINT, round((1 + random() * 9999)::NUMERIC, 2),
+                           CASE WHEN random() < 0.5 THEN 'CASH' ELSE 'CARD' END,
+                           now() - random() * INTERVAL '%d days'
+                    FROM generate_series(1, %d)
+                    """.formatted(Math.floorMod(seed, 1000) / 1000.0, sellers, days, transactions));
+            jdbcTemplate.execute("""
+                    INSERT INTO seller_daily_totals (seller_id, day, total_amount, transaction_count)
+                    SELECT seller_id, transaction_date::DATE, SUM(amount), COUNT(*)
+                    FROM transactions
+                    GROUP BY seller_id, transaction_date::DATE
+                    """);
+            jdbcTemplate.execute("ANALYZE");
+        }
+        maxSellerId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 1) FROM sellers", Long.class);
+        maxTransactionId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 1) FROM transactions", Long.class);
+        today = LocalDate.now();
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Operation next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Workload mix is empty.");
+    }
+
+    public long randomSellerId(Random random) {
+        return 1 + (long) (random.nextDouble() * maxSellerId);
+    }
+
+    public long randomTransactionId(Random random) {
+        return 1 + (long) (random.nextDouble() * maxTransactionId);
+    }
+
+    public LocalDate[] randomRange(Random random) {
+        Random ranges = new Random(seed * 31 + random.nextInt(rangePool));
+        LocalDate end = today.plusDays(1).minusDays(ranges.nextInt(days));
+        return new LocalDate[]{end.minusDays(1 + ranges.nextInt(30)), end};
+    }
+
+}
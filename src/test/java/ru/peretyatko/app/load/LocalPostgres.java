@@ -0,0 +1,52 @@
+package ru.peretyatko.app.load;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+public class LocalPostgres implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> container;
+
+    private final String jdbcUrl;
+
+    private final String username;
+
+    private final String password;
+
+    private LocalPostgres(PostgreSQLContainer<?> container, String jdbcUrl, String username, String password) {
+        this.container = container;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static LocalPostgres start(String prefix) {
+        String jdbcUrl = System.getProperty(prefix + ".jdbcUrl");
+        if (jdbcUrl != null) {
+            return new LocalPostgres(null, jdbcUrl, System.getProperty(prefix + ".username", "crm"),
+                    System.getProperty(prefix + ".password", "crm"));
+        }
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(System.getProperty(prefix + ".image", "postgres:12"));
+        container.start();
+        return new LocalPostgres(container, container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    public String[] springProperties() {
+        String r2dbcUrl = "r2dbc:" + jdbcUrl.substring("jdbc:".length()).split("\\?")[0];
+        return new String[]{
+                "spring.datasource.url=" + jdbcUrl,
+                "spring.datasource.username=" + username,
+                "spring.datasource.password=" + password,
+                "spring.r2dbc.url=" + r2dbcUrl,
+                "spring.r2dbc.username=" + username,
+                "spring.r2dbc.password=" + password
+        };
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package ru.peretyatko.app.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+    private volatile RuntimeException failure;
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        if (failure != null) {
+            throw failure;
+        }
+        this.events.addAll(events);
+    }
+
+    public List<OutboxEvent> getEvents() {
+        return events;
+    }
+
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+}
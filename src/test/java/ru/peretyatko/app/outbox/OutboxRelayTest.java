@@ -0,0 +1,84 @@
+package ru.peretyatko.app.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final InMemoryOutboxSink sink = new InMemoryOutboxSink();
+
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    };
+
+    private OutboxProperties properties;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        outboxRelay = new OutboxRelay(properties, jdbcTemplate, transactions, List.of(sink));
+    }
+
+    @Test
+    public void relay_DeliversBatchesInOrderUntilOutboxIsDrained() {
+        when(jdbcTemplate.query(eq(OutboxRelay.SQL_CLAIM_BATCH), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(2L), event(1L)), List.of(event(3L)));
+        outboxRelay.relay();
+        assertEquals(List.of(1L, 2L, 3L), sink.getEvents().stream().map(OutboxEvent::getId).toList());
+        assertEquals(3, outboxRelay.getDelivered());
+        verify(jdbcTemplate, times(2)).query(eq(OutboxRelay.SQL_CLAIM_BATCH), any(RowMapper.class), eq(2));
+    }
+
+    @Test
+    public void relay_CountsFailureWhenSinkRejectsBatch() {
+        when(jdbcTemplate.query(eq(OutboxRelay.SQL_CLAIM_BATCH), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(1L), event(2L)));
+        sink.failWith(new IllegalStateException("billing is down"));
+        outboxRelay.relay();
+        assertTrue(sink.getEvents().isEmpty());
+        assertEquals(0, outboxRelay.getDelivered());
+        assertEquals(1, outboxRelay.getFailures());
+        verify(jdbcTemplate, times(1)).query(eq(OutboxRelay.SQL_CLAIM_BATCH), any(RowMapper.class), eq(2));
+    }
+
+    @Test
+    public void relay_DoesNothingWhenDisabled() {
+        properties.setEnabled(false);
+        outboxRelay.relay();
+        verify(jdbcTemplate, never()).query(eq(OutboxRelay.SQL_CLAIM_BATCH), any(RowMapper.class), eq(2));
+    }
+
+    private static OutboxEvent event(long id) {
+        return new OutboxEvent(id, ChangeType.CREATED, id, 1L, PaymentType.CASH, BigDecimal.TEN, null, BigDecimal.ZERO,
+                LocalDateTime.parse("2024-10-01T15:30:00"), LocalDateTime.parse("2024-10-01T15:30:01"));
+    }
+
+}
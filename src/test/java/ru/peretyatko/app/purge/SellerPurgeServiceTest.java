@@ -0,0 +1,130 @@
+package ru.peretyatko.app.purge;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.peretyatko.app.dto.seller.SellerPurgeResponse;
+import ru.peretyatko.app.dto.seller.SellerPurgeStatus;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SellerPurgeServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private final TransactionOperations transactions = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            return action.doInTransaction(null);
+        }
+    };
+
+    private SellerPurgeService sellerPurgeService;
+
+    @BeforeEach
+    public void setUp() {
+        SellerPurgeProperties properties = new SellerPurgeProperties();
+        properties.setChunkSize(2);
+        sellerPurgeService = new SellerPurgeService(properties, jdbcTemplate, transactions, eventPublisher, scheduled::add);
+        when(jdbcTemplate.queryForObject(eq(SellerPurgeService.SQL_COUNT_TRANSACTIONS), eq(Long.class), eq(1L))).thenReturn(5L);
+    }
+
+    @Test
+    public void purge_DeletesTransactionsInChunks() {
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_TRANSACTIONS_CHUNK), any(RowMapper.class), eq(1L), eq(2)))
+                .thenReturn(deleted(1, 2), deleted(3, 4), deleted(5));
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_REMAINING_TRANSACTIONS), any(RowMapper.class), eq(1L)))
+                .thenReturn(deleted(6));
+        SellerPurgeResponse result = sellerPurgeService.purge(1L);
+        assertEquals(SellerPurgeStatus.COMPLETED, result.getStatus());
+        assertEquals(6, result.getDeletedTransactions());
+        verify(jdbcTemplate, times(3)).query(eq(SellerPurgeService.SQL_DELETE_TRANSACTIONS_CHUNK), any(RowMapper.class), eq(1L), eq(2));
+        verify(jdbcTemplate).queryForList(eq(SellerPurgeService.SQL_LOCK_SELLER), eq(Long.class), eq(1L));
+        verify(jdbcTemplate).update(eq(SellerPurgeService.SQL_DELETE_SELLER), eq(1L));
+        verify(eventPublisher).publishEvent(any(SellerChangedEvent.class));
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(5)).publishEvent(events.capture());
+        List<Long> ids = events.getAllValues().stream()
+                .filter(TransactionsChangedEvent.class::isInstance)
+                .flatMap(event -> ((TransactionsChangedEvent) event).getChanges().stream())
+                .peek(change -> assertEquals(ChangeType.DELETED, change.getType()))
+                .map(TransactionChange::getTransactionId)
+                .toList();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids);
+    }
+
+    @Test
+    public void purge_SkipsEventWhenNothingRemains() {
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_TRANSACTIONS_CHUNK), any(RowMapper.class), eq(1L), eq(2)))
+                .thenReturn(deleted(1));
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_REMAINING_TRANSACTIONS), any(RowMapper.class), eq(1L)))
+                .thenReturn(List.of());
+        assertEquals(1, sellerPurgeService.purge(1L).getDeletedTransactions());
+        verify(eventPublisher, times(1)).publishEvent(any(TransactionsChangedEvent.class));
+    }
+
+    @Test
+    public void purge_ReturnsErrorWhenChunkFails() {
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_TRANSACTIONS_CHUNK), any(RowMapper.class), eq(1L), eq(2)))
+                .thenReturn(deleted(1, 2))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+        assertThrows(ServiceException.class, () -> sellerPurgeService.purge(1L));
+        verify(jdbcTemplate, never()).update(eq(SellerPurgeService.SQL_DELETE_SELLER), eq(1L));
+        verify(eventPublisher, never()).publishEvent(any(SellerChangedEvent.class));
+    }
+
+    @Test
+    public void purgeAsync_ReportsProgress() {
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_TRANSACTIONS_CHUNK), any(RowMapper.class), eq(1L), eq(2)))
+                .thenReturn(deleted(1, 2), deleted(3, 4), deleted(5));
+        when(jdbcTemplate.query(eq(SellerPurgeService.SQL_DELETE_REMAINING_TRANSACTIONS), any(RowMapper.class), eq(1L)))
+                .thenReturn(List.of());
+        SellerPurgeResponse started = sellerPurgeService.purgeAsync(1L);
+        assertEquals(SellerPurgeStatus.RUNNING, started.getStatus());
+        assertEquals(5, started.getTotalTransactions());
+        assertEquals(started.getId(), sellerPurgeService.purgeAsync(1L).getId());
+        assertEquals(1, scheduled.size());
+        scheduled.getFirst().run();
+        SellerPurgeResponse finished = sellerPurgeService.getPurge(started.getId()).orElseThrow();
+        assertEquals(SellerPurgeStatus.COMPLETED, finished.getStatus());
+        assertEquals(5, finished.getDeletedTransactions());
+    }
+
+    private static List<TransactionChange> deleted(long... ids) {
+        List<TransactionChange> changes = new ArrayList<>();
+        for (long id : ids) {
+            changes.add(new TransactionChange(ChangeType.DELETED, id, 1L, null, 0, PaymentType.CASH, 100,
+                    LocalDateTime.parse("2024-10-01T15:30:00")));
+        }
+        return changes;
+    }
+
+}
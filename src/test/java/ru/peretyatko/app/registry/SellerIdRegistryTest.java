@@ -0,0 +1,75 @@
+package ru.peretyatko.app.registry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.peretyatko.app.event.ChangeType;
+import ru.peretyatko.app.event.SellerChangedEvent;
+import ru.peretyatko.app.repository.SellerRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SellerIdRegistryTest {
+
+    @Mock
+    private SellerRepository sellerRepository;
+
+    @InjectMocks
+    private SellerIdRegistry sellerIdRegistry;
+
+    @Test
+    public void contains_AnswersFromBitmapAfterRebuild() {
+        when(sellerRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 3L));
+        sellerIdRegistry.rebuild();
+        assertTrue(sellerIdRegistry.contains(2L));
+        assertEquals(3, sellerIdRegistry.size());
+        verify(sellerRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    public void contains_FallsBackToDatabaseOnMiss() {
+        when(sellerRepository.streamAllIds()).thenReturn(Stream.of(1L));
+        sellerIdRegistry.rebuild();
+        when(sellerRepository.existsById(eq(5L))).thenReturn(true);
+        when(sellerRepository.existsById(eq(6L))).thenReturn(false);
+        assertTrue(sellerIdRegistry.contains(5L));
+        assertTrue(sellerIdRegistry.contains(5L));
+        assertFalse(sellerIdRegistry.contains(6L));
+        verify(sellerRepository).existsById(eq(5L));
+    }
+
+    @Test
+    public void onSellerChanged_TracksCreatedAndDeletedSellers() {
+        when(sellerRepository.streamAllIds()).thenReturn(Stream.of(1L));
+        sellerIdRegistry.rebuild();
+        sellerIdRegistry.onSellerChanged(new SellerChangedEvent(ChangeType.CREATED, 2L));
+        sellerIdRegistry.onSellerChanged(new SellerChangedEvent(ChangeType.DELETED, 1L));
+        assertTrue(sellerIdRegistry.contains(2L));
+        when(sellerRepository.existsById(eq(1L))).thenReturn(false);
+        assertFalse(sellerIdRegistry.contains(1L));
+    }
+
+    @Test
+    public void retainExisting_QueriesOnlyUnknownIds() {
+        when(sellerRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L));
+        sellerIdRegistry.rebuild();
+        when(sellerRepository.findExistingIds(eq(Set.of(3L, 4L)))).thenReturn(Set.of(3L));
+        assertEquals(Set.of(1L, 3L), sellerIdRegistry.retainExisting(List.of(1L, 3L, 4L)));
+        assertTrue(sellerIdRegistry.contains(3L));
+    }
+
+}
@@ -0,0 +1,261 @@
+package ru.peretyatko.app.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.peretyatko.app.service.RevenueSeriesService;
+import ru.peretyatko.app.service.TransactionExportService;
+import ru.peretyatko.app.statement.StatementCounter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final int SELLERS = 2_000;
+
+    private static final int TRANSACTIONS = 1_000_000;
+
+    private static final LocalDateTime AFTER_DATE = LocalDateTime.parse("2023-03-01T12:00:00");
+
+    private static final LocalDateTime END = LocalDateTime.parse("2023-03-08T12:00:00");
+
+    private static final int PAGE = 51;
+
+    private static final Map<String, String> WEEK = Map.ofEntries(
+            Map.entry("start", "TIMESTAMP '2023-03-01 12:00:00'"),
+            Map.entry("end", "TIMESTAMP '2023-03-08 12:00:00'"),
+            Map.entry("fullStart", "DATE '2023-03-02'"),
+            Map.entry("fullEnd", "DATE '2023-03-08'"),
+            Map.entry("headEnd", "TIMESTAMP '2023-03-02 00:00:00'"),
+            Map.entry("tailStart", "TIMESTAMP '2023-03-08 00:00:00'"),
+            Map.entry("maxSum", "100000"),
+            Map.entry("top", "100"),
+            Map.entry("paymentType", "'CARD'"),
+            Map.entry("unit", "'day'"),
+            Map.entry("step", "'1 day'"),
+            Map.entry("sellerId", "42"));
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:" + postgres.getJdbcUrl().substring("jdbc:".length()).split("\\?")[0]);
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("filesystem:src/main/resources/db.migration")
+                .load()
+                .migrate();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO sellers (name, contact_info, registration_date)
+                    SELECT 'Seller ' || g, 'seller' || g || '@mail.ru', TIMESTAMP '2020-01-01 00:00:00'
+                    FROM generate_series(1, %d) g
+                    """.formatted(SELLERS));
+            statement.execute("""
+                    INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                    SELECT 1 + g %% %d, 1 + g %% 1000, (ARRAY['CASH', 'CARD', 'TRANSFER'])[1 + g %% 3],
+                           TIMESTAMP '2022-01-01 00:00:00' + g * INTERVAL '1 minute'
+                    FROM generate_series(1, %d) g
+                    """.formatted(SELLERS, TRANSACTIONS));
+            statement.execute("SELECT create_transactions_partitions(DATE '2022-01-01', DATE '2023-12-01')");
+            statement.execute("""
+                    INSERT INTO seller_daily_totals (seller_id, day, total_amount, transaction_count)
+                    SELECT seller_id, CAST(transaction_date AS DATE), SUM(amount), COUNT(*)
+                    FROM transactions
+                    GROUP BY seller_id, CAST(transaction_date AS DATE)
+                    """);
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @Test
+    public void bestSeller_DoesNotScanTransactions() throws Exception {
+        assertNoSeqScanOnTransactions(SellerAnalyticsRepository.SQL_BEST_SELLER, WEEK);
+    }
+
+    @Test
+    public void sellersSumLessThen_DoesNotScanTransactions() throws Exception {
+        assertNoSeqScanOnTransactions(SellerAnalyticsRepository.SQL_SUM_LESS_THEN, WEEK);
+    }
+
+    @Test
+    public void topSellers_DoesNotScanTransactions() throws Exception {
+        assertNoSeqScanOnTransactions(SellerAnalyticsRepository.SQL_TOP_SELLERS, WEEK);
+    }
+
+    @Test
+    public void revenueSeries_DoesNotScanTransactions() throws Exception {
+        assertNoSeqScanOnTransactions(RevenueSeriesService.SQL_REVENUE_SERIES.formatted(""), WEEK);
+    }
+
+    @Test
+    public void transactionsPage_DoesNotScanTransactions() throws Exception {
+        String sql = captureSql(() -> transactionRepository.findPageAfter(AFTER_DATE, 0L, Limit.of(PAGE)));
+        assertNoSeqScan(explain(sql, AFTER_DATE, AFTER_DATE, 0L, PAGE));
+    }
+
+    @Test
+    public void sellerTransactionsPage_DoesNotScanTransactions() throws Exception {
+        String sql = captureSql(() -> transactionRepository.findPageOfSellerAfter(42L, AFTER_DATE, 0L, END, Limit.of(PAGE)));
+        assertNoSeqScan(explain(sql, 42L, AFTER_DATE, AFTER_DATE, 0L, END, PAGE));
+    }
+
+    @Test
+    public void sellerExport_DoesNotScanTransactions() throws Exception {
+        String sql = TransactionExportService.SQL_EXPORT
+                + "AND seller_id = :sellerId\nAND transaction_date >= :start\nAND transaction_date < :end\n"
+                + "ORDER BY transaction_date, id";
+        assertNoSeqScanOnTransactions(sql, WEEK);
+    }
+
+    @Test
+    public void bestSeller_ScansOnlyPartitionsInRange() throws Exception {
+        assertScannedPartitions(SellerAnalyticsRepository.SQL_BEST_SELLER, WEEK, Set.of("transactions_2023_03"));
+    }
+
+    @Test
+    public void sellersSumLessThen_ScansOnlyPartitionsInRange() throws Exception {
+        assertScannedPartitions(SellerAnalyticsRepository.SQL_SUM_LESS_THEN, WEEK, Set.of("transactions_2023_03"));
+    }
+
+    @Test
+    public void topSellers_ScansOnlyPartitionsInRange() throws Exception {
+        assertScannedPartitions(SellerAnalyticsRepository.SQL_TOP_SELLERS, WEEK, Set.of("transactions_2023_03"));
+    }
+
+    @Test
+    public void topSellersByPaymentType_ScansOnlyPartitionsInRange() throws Exception {
+        assertScannedPartitions(SellerAnalyticsRepository.SQL_TOP_SELLERS_BY_PAYMENT_TYPE, WEEK, Set.of("transactions_2023_03"));
+    }
+
+    @Test
+    public void sellerRevenueSeries_ScansOnlyPartitionsInRange() throws Exception {
+        String sql = RevenueSeriesService.SQL_REVENUE_SERIES.formatted(RevenueSeriesService.SQL_SELLER_FILTER);
+        assertScannedPartitions(sql, WEEK, Set.of("transactions_2023_03"));
+    }
+
+    private void assertScannedPartitions(String sql, Map<String, String> parameters, Set<String> expected) throws Exception {
+        JsonNode plan = explain(bind(sql, parameters));
+        Set<String> partitions = new TreeSet<>();
+        collectTransactionRelations(plan, partitions);
+        assertEquals(expected, partitions, "Unexpected partitions in plan:\n" + plan.toPrettyString());
+    }
+
+    private void collectTransactionRelations(JsonNode node, Set<String> relations) {
+        String relation = node.path("Relation Name").asText("");
+        if (relation.startsWith("transactions")) {
+            relations.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectTransactionRelations(child, relations);
+        }
+    }
+
+    private void assertNoSeqScanOnTransactions(String sql, Map<String, String> parameters) throws Exception {
+        assertNoSeqScan(explain(bind(sql, parameters)));
+    }
+
+    private void assertNoSeqScan(JsonNode plan) {
+        List<String> seqScans = new ArrayList<>();
+        collectSeqScans(plan, seqScans);
+        assertTrue(seqScans.isEmpty(), "Sequential scan on " + seqScans + " in plan:\n" + plan.toPrettyString());
+    }
+
+    private JsonNode explain(String sql) throws Exception {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+            resultSet.next();
+            return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+        }
+    }
+
+    private String captureSql(Runnable query) {
+        try (StatementCounter.Scope scope = statementCounter.open()) {
+            query.run();
+            assertEquals(1, scope.getCount(), "Unexpected statements: " + scope.getStatements());
+            return scope.getStatements().getFirst();
+        }
+    }
+
+    private JsonNode explain(String sql, Object... parameters) throws Exception {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            int count = statement.getParameterMetaData().getParameterCount();
+            for (int i = 0; i < count; ++i) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private void collectSeqScans(JsonNode node, List<String> seqScans) {
+        String relation = node.path("Relation Name").asText("");
+        if ("Seq Scan".equals(node.path("Node Type").asText()) && relation.startsWith("transactions")) {
+            seqScans.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    private static String bind(String sql, Map<String, String> parameters) {
+        String bound = sql;
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            bound = bound.replaceAll(":" + parameter.getKey() + "\\b", parameter.getValue());
+        }
+        return bound;
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+}
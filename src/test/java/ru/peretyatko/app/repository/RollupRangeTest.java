@@ -0,0 +1,56 @@
+package ru.peretyatko.app.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollupRangeTest {
+
+    @Test
+    public void of_SplitsRangeIntoEdgesAndWholeDays() {
+        RollupRange range = RollupRange.of(LocalDateTime.parse("2024-10-01T15:30:00"), LocalDateTime.parse("2024-10-05T10:00:00"), true);
+        assertEquals(LocalDate.parse("2024-10-02"), range.getFullStart());
+        assertEquals(LocalDate.parse("2024-10-05"), range.getFullEnd());
+        assertEquals(LocalDateTime.parse("2024-10-02T00:00:00"), range.getHeadEnd());
+        assertEquals(LocalDateTime.parse("2024-10-05T00:00:00"), range.getTailStart());
+    }
+
+    @Test
+    public void of_IncludesFirstDayWhenStartIsInclusiveMidnight() {
+        RollupRange range = RollupRange.of(LocalDateTime.parse("2024-10-01T00:00:00"), LocalDateTime.parse("2024-10-05T00:00:00"), true);
+        assertEquals(LocalDate.parse("2024-10-01"), range.getFullStart());
+        assertEquals(LocalDate.parse("2024-10-05"), range.getFullEnd());
+        assertEquals(LocalDateTime.parse("2024-10-01T00:00:00"), range.getHeadEnd());
+    }
+
+    @Test
+    public void of_ExcludesFirstDayWhenStartIsExclusiveMidnight() {
+        RollupRange range = RollupRange.of(LocalDateTime.parse("2024-10-01T00:00:00"), LocalDateTime.parse("2024-10-05T00:00:00"), false);
+        assertEquals(LocalDate.parse("2024-10-02"), range.getFullStart());
+        assertEquals(LocalDateTime.parse("2024-10-02T00:00:00"), range.getHeadEnd());
+    }
+
+    @Test
+    public void of_UsesOnlyRawRowsWithoutWholeDays() {
+        LocalDateTime start = LocalDateTime.parse("2024-10-01T10:00:00");
+        LocalDateTime end = LocalDateTime.parse("2024-10-02T05:00:00");
+        RollupRange range = RollupRange.of(start, end, true);
+        assertEquals(range.getFullStart(), range.getFullEnd());
+        assertEquals(end, range.getHeadEnd());
+        assertEquals(end, range.getTailStart());
+    }
+
+    @Test
+    public void raw_UsesOnlyRawRows() {
+        LocalDateTime start = LocalDateTime.parse("2024-10-01T00:00:00");
+        LocalDateTime end = LocalDateTime.parse("2024-10-05T00:00:00");
+        RollupRange range = RollupRange.raw(start, end);
+        assertEquals(range.getFullStart(), range.getFullEnd());
+        assertEquals(end, range.getHeadEnd());
+        assertEquals(end, range.getTailStart());
+    }
+
+}
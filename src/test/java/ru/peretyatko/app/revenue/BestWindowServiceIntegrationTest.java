@@ -0,0 +1,94 @@
+package ru.peretyatko.app.revenue;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.peretyatko.app.dto.seller.SellerBestWindowResponse;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+class BestWindowServiceIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.parse("2024-10-01T10:00:00");
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("filesystem:src/main/resources/db.migration")
+                .load()
+                .migrate();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO sellers (id, name, contact_info, registration_date)
+                    VALUES (1, 'Ilya', '+78005553535', TIMESTAMP '2023-10-01 15:30:00'),
+                           (2, 'Igor', 'igor@mail.ru', TIMESTAMP '2023-10-01 15:30:00')
+                    """);
+            statement.execute("""
+                    INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                    VALUES (1, 100, 'CASH', TIMESTAMP '2024-10-01 10:00:00'),
+                           (1, 50, 'CARD', TIMESTAMP '2024-10-02 10:00:00'),
+                           (1, 300, 'CASH', TIMESTAMP '2024-10-06 10:00:00'),
+                           (1, 20, 'TRANSFER', TIMESTAMP '2024-10-07 10:00:00'),
+                           (1, 40, 'CASH', TIMESTAMP '2024-10-08 10:00:00'),
+                           (1, 200, 'CARD', TIMESTAMP '2024-10-13 10:00:00'),
+                           (2, 5000, 'CASH', TIMESTAMP '2024-10-07 10:00:00')
+                    """);
+        }
+    }
+
+    @Test
+    public void findBestWindow_ScansSellerTransactionsWithTwoCursors() {
+        SellerBestWindowResponse response = findBestWindow(3, null, null);
+        assertEquals(1L, response.getSellerId());
+        assertEquals(START.plusDays(4), response.getWindowStart());
+        assertEquals(START.plusDays(7), response.getWindowEnd());
+        assertEquals(0, new BigDecimal("360").compareTo(response.getAmount()));
+        assertEquals(3, response.getTransactionCount());
+    }
+
+    @Test
+    public void findBestWindow_ScansOnlyTransactionsInRange() {
+        SellerBestWindowResponse response = findBestWindow(3, START.plusDays(8), START.plusDays(20));
+        assertEquals(START.plusDays(9), response.getWindowStart());
+        assertEquals(START.plusDays(12), response.getWindowEnd());
+        assertEquals(0, new BigDecimal("200").compareTo(response.getAmount()));
+        assertEquals(1, response.getTransactionCount());
+    }
+
+    private SellerBestWindowResponse findBestWindow(int days, LocalDateTime start, LocalDateTime end) {
+        SellerIdRegistry sellerIdRegistry = mock(SellerIdRegistry.class);
+        when(sellerIdRegistry.contains(anyLong())).thenReturn(true);
+        BestWindowService service = new BestWindowService(new JdbcTemplate(dataSource), sellerIdRegistry, 2, 366);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        return transactionTemplate.execute(status -> service.findBestWindow(1L, days, start, end));
+    }
+
+}
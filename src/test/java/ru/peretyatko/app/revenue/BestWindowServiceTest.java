@@ -0,0 +1,121 @@
+package ru.peretyatko.app.revenue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BestWindowServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.parse("2024-10-01T00:00:00");
+
+    private static final List<Object[]> ROWS = List.of(
+            new Object[]{START, "100"},
+            new Object[]{START.plusDays(1), "50"},
+            new Object[]{START.plusDays(5), "300"},
+            new Object[]{START.plusDays(6), "20"},
+            new Object[]{START.plusDays(7), "40"},
+            new Object[]{START.plusDays(12), "200"});
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SellerIdRegistry sellerIdRegistry;
+
+    private BestWindowService bestWindowService;
+
+    @BeforeEach
+    public void setUp() {
+        bestWindowService = new BestWindowService(jdbcTemplate, sellerIdRegistry, 1000, 366);
+    }
+
+    @Test
+    public void scan_FindsBestWindow() throws Exception {
+        BestWindowService.BestWindow best = BestWindowService.scan(cursor(ROWS), cursor(ROWS), Duration.ofDays(3));
+        assertEquals(new BigDecimal("360"), best.amount());
+        assertEquals(3, best.count());
+        assertEquals(START.plusDays(4), best.start());
+        assertEquals(START.plusDays(7), best.end());
+    }
+
+    @Test
+    public void scan_DropsTransactionsOnWindowStart() throws Exception {
+        BestWindowService.BestWindow best = BestWindowService.scan(cursor(ROWS), cursor(ROWS), Duration.ofDays(5));
+        assertEquals(new BigDecimal("360"), best.amount());
+        assertEquals(START.plusDays(2), best.start());
+    }
+
+    @Test
+    public void scan_ReturnsNullWithoutTransactions() throws Exception {
+        assertNull(BestWindowService.scan(cursor(List.of()), cursor(List.of()), Duration.ofDays(7)));
+    }
+
+    @Test
+    public void scan_ThrowsWhenTrailingCursorRunsOut() {
+        assertThrows(IllegalStateException.class, () -> {
+            BestWindowService.scan(cursor(ROWS), cursor(ROWS.subList(0, 1)), Duration.ofDays(3));
+        });
+    }
+
+    @Test
+    public void findBestWindow_ReturnsErrorOnDaysAboveMax() {
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            bestWindowService.findBestWindow(1L, 367, null, null);
+        });
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getCode());
+    }
+
+    @Test
+    public void findBestWindow_ReturnsErrorOnUnknownSeller() {
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(false);
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            bestWindowService.findBestWindow(1L, 7, null, null);
+        });
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getCode());
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+
+    private static BestWindowService.TransactionCursor cursor(List<Object[]> rows) {
+        return new BestWindowService.TransactionCursor() {
+            private int position = -1;
+
+            @Override
+            public boolean next() {
+                return ++position < rows.size();
+            }
+
+            @Override
+            public LocalDateTime date() {
+                return (LocalDateTime) rows.get(position)[0];
+            }
+
+            @Override
+            public BigDecimal amount() {
+                return new BigDecimal((String) rows.get(position)[1]);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,137 @@
+package ru.peretyatko.app.revenue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.peretyatko.app.dto.seller.SellerRevenueResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.model.Transaction;
+import ru.peretyatko.app.repository.TransactionRepository;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueWindowServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.parse("2024-10-01T15:30:00");
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private final Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private RevenueWindowService revenueWindowService;
+
+    @BeforeEach
+    public void setUp() {
+        revenueWindowService = new RevenueWindowService(new RevenueProperties(), transactionRepository, clock);
+        when(transactionRepository.streamBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Stream.of(new TransactionResponse(1L, 1L, 100.5, PaymentType.CASH, NOW.minusMinutes(10))));
+        revenueWindowService.rebuild();
+    }
+
+    @Test
+    public void getSellerRevenue_CombinesRebuildAndLiveChanges() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", NOW, null);
+        Transaction transaction = new Transaction(2L, seller, 200, PaymentType.CARD, NOW.minusMinutes(1));
+        revenueWindowService.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.created(transaction))));
+        List<SellerRevenueResponse> revenue = revenueWindowService.getSellerRevenue(1L);
+        assertEquals(3, revenue.size());
+        assertEquals(200, revenue.get(0).getAmount());
+        assertEquals(1, revenue.get(0).getCount());
+        assertEquals(300.5, revenue.get(1).getAmount());
+        assertEquals(2, revenue.get(1).getCount());
+        assertEquals(300.5, revenue.get(2).getAmount());
+    }
+
+    @Test
+    public void getSellerRevenue_AppliesDeletes() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", NOW, null);
+        Transaction transaction = new Transaction(1L, seller, 100.5, PaymentType.CASH, NOW.minusMinutes(10));
+        revenueWindowService.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.deleted(transaction))));
+        SellerRevenueResponse revenue = revenueWindowService.getSellerRevenue(1L).get(2);
+        assertEquals(0, revenue.getAmount());
+        assertEquals(0, revenue.getCount());
+    }
+
+    @Test
+    public void rebuild_ReplaysChangesCommittedDuringRebuildOnce() {
+        RevenueWindowService service = new RevenueWindowService(new RevenueProperties(), transactionRepository, clock);
+        Seller seller = new Seller(3L, "Oleg", "oleg@mail.ru", NOW, null);
+        Transaction beforeSnapshot = new Transaction(3L, seller, 100, PaymentType.CASH, NOW.minusMinutes(2));
+        Transaction afterSnapshot = new Transaction(4L, seller, 50, PaymentType.CARD, NOW.minusMinutes(1));
+        when(transactionRepository.streamBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            service.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.created(beforeSnapshot),
+                    TransactionChange.created(afterSnapshot))));
+            return Stream.of(new TransactionResponse(3L, 3L, 100, PaymentType.CASH, beforeSnapshot.getTransactionDate()));
+        });
+        when(transactionRepository.findResponsesByIds(any()))
+                .thenReturn(List.of(new TransactionResponse(3L, 3L, 100, PaymentType.CASH, beforeSnapshot.getTransactionDate())));
+        service.rebuild();
+        SellerRevenueResponse revenue = service.getSellerRevenue(3L).get(2);
+        assertEquals(150, revenue.getAmount());
+        assertEquals(2, revenue.getCount());
+    }
+
+    @Test
+    public void rebuild_MatchesReplayedUpdatesByCents() {
+        RevenueWindowService service = new RevenueWindowService(new RevenueProperties(), transactionRepository, clock);
+        Seller seller = new Seller(5L, "Oleg", "oleg@mail.ru", NOW, null);
+        Transaction updated = new Transaction(5L, seller, 1.3, PaymentType.CASH, NOW.minusMinutes(2));
+        TransactionResponse snapshot = new TransactionResponse(5L, 5L, 0.3, PaymentType.CASH, updated.getTransactionDate());
+        when(transactionRepository.streamBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            service.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.updated(updated, PaymentType.CASH, 0.1 + 0.2))));
+            return Stream.of(snapshot);
+        });
+        when(transactionRepository.findResponsesByIds(any())).thenReturn(List.of(snapshot));
+        service.rebuild();
+        SellerRevenueResponse revenue = service.getSellerRevenue(5L).get(2);
+        assertEquals(1.3, revenue.getAmount());
+        assertEquals(1, revenue.getCount());
+    }
+
+    @Test
+    public void prune_EvictsWindowsWithoutRevenue() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", NOW, null);
+        Transaction transaction = new Transaction(1L, seller, 100.5, PaymentType.CASH, NOW.minusMinutes(10));
+        revenueWindowService.prune();
+        assertEquals(1, revenueWindowService.getTrackedSellers());
+        revenueWindowService.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.deleted(transaction))));
+        revenueWindowService.prune();
+        assertEquals(0, revenueWindowService.getTrackedSellers());
+    }
+
+    @Test
+    public void getTopSellers_ReturnsSellersOrderedByAmount() {
+        Seller seller = new Seller(2L, "Igor", "igor@mail.ru", NOW, null);
+        Transaction transaction = new Transaction(2L, seller, 500, PaymentType.CARD, NOW.minusMinutes(2));
+        revenueWindowService.onTransactionsChanged(new TransactionsChangedEvent(List.of(TransactionChange.created(transaction))));
+        List<SellerRevenueResponse> top = revenueWindowService.getTopSellers(15, 1);
+        assertEquals(1, top.size());
+        assertEquals(2L, top.getFirst().getSellerId());
+        assertEquals(2, revenueWindowService.getTopSellers(15, 10).size());
+        assertEquals(1, revenueWindowService.getTopSellers(5, 10).size());
+    }
+
+    @Test
+    public void getTopSellers_ThrowsOnWindowOutsideHorizon() {
+        assertThrows(ServiceException.class, () -> revenueWindowService.getTopSellers(61, 10));
+    }
+
+}
@@ -0,0 +1,67 @@
+package ru.peretyatko.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.peretyatko.app.dto.seller.SellerResponse;
+import ru.peretyatko.app.dto.transaction.TransactionResponse;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.repository.ReactiveAnalyticsRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAnalyticsServiceTest {
+
+    @Mock
+    private ReactiveAnalyticsRepository reactiveAnalyticsRepository;
+
+    @InjectMocks
+    private ReactiveAnalyticsService reactiveAnalyticsService;
+
+    @Test
+    public void getBestSeller_ReturnsSeller() {
+        SellerResponse seller = new SellerResponse(1L, "Ilya", "+78005553535", LocalDateTime.now());
+        when(reactiveAnalyticsRepository.findBestSeller(isNull(), isNull())).thenReturn(Mono.just(seller));
+        assertEquals(1L, reactiveAnalyticsService.getBestSeller(null, null).block().getId());
+    }
+
+    @Test
+    public void getBestSeller_ReturnsErrorWhenEmpty() {
+        when(reactiveAnalyticsRepository.findBestSeller(any(), any())).thenReturn(Mono.empty());
+        assertThrows(ServiceException.class, () -> reactiveAnalyticsService.getBestSeller(null, null).block());
+    }
+
+    @Test
+    public void getSellersSumLessThen_ReturnsErrorOnInvalidRangeWithoutQuery() {
+        LocalDateTime start = LocalDateTime.parse("2024-10-02T00:00:00");
+        Flux<SellerResponse> sellers = reactiveAnalyticsService.getSellersSumLessThen(100, start, start.minusDays(1));
+        assertThrows(ServiceException.class, sellers::blockLast);
+        verifyNoInteractions(reactiveAnalyticsRepository);
+    }
+
+    @Test
+    public void getTransactions_StreamsWholeRangeByDefault() {
+        TransactionResponse transaction = new TransactionResponse(1L, 1L, 100, PaymentType.CASH, LocalDateTime.now());
+        when(reactiveAnalyticsRepository.streamTransactions(eq(1L), eq(DateKeyset.ORIGIN), eq(DateKeyset.HORIZON)))
+                .thenReturn(Flux.just(transaction));
+        List<TransactionResponse> result = reactiveAnalyticsService.getTransactions(1L, null, null).collectList().block();
+        assertEquals(1, result.size());
+    }
+
+}
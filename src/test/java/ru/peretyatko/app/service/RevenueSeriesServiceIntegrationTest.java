@@ -0,0 +1,127 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.peretyatko.app.dto.seller.RevenueBucket;
+import ru.peretyatko.app.dto.seller.RevenuePointResponse;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RevenueSeriesServiceIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private static DriverManagerDataSource dataSource;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("filesystem:src/main/resources/db.migration")
+                .load()
+                .migrate();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO sellers (id, name, contact_info, registration_date)
+                    VALUES (1, 'Ilya', '+78005553535', TIMESTAMP '2023-10-01 15:30:00'),
+                           (2, 'Igor', 'igor@mail.ru', TIMESTAMP '2023-10-01 15:30:00')
+                    """);
+            statement.execute("""
+                    INSERT INTO transactions (seller_id, amount, payment_type, transaction_date)
+                    VALUES (1, 100, 'CASH', TIMESTAMP '2024-10-01 10:15:00'),
+                           (1, 50, 'CARD', TIMESTAMP '2024-10-01 23:30:00'),
+                           (1, 200, 'CASH', TIMESTAMP '2024-10-02 12:00:00'),
+                           (1, 25, 'TRANSFER', TIMESTAMP '2024-10-04 08:00:00'),
+                           (1, 10, 'CASH', TIMESTAMP '2024-10-08 09:00:00'),
+                           (2, 1000, 'CASH', TIMESTAMP '2024-10-02 12:00:00')
+                    """);
+            statement.execute("""
+                    INSERT INTO seller_daily_totals (seller_id, day, total_amount, transaction_count)
+                    SELECT seller_id, CAST(transaction_date AS DATE), SUM(amount), COUNT(*)
+                    FROM transactions
+                    GROUP BY seller_id, CAST(transaction_date AS DATE)
+                    """);
+        }
+    }
+
+    @Test
+    public void hourSeries_FillsGapsFromRawTransactions() throws Exception {
+        List<RevenuePointResponse> points = series(RevenueBucket.HOUR,
+                LocalDateTime.parse("2024-10-01T10:00:00"), LocalDateTime.parse("2024-10-01T13:00:00"));
+        assertEquals(3, points.size());
+        assertPoint(points.get(0), "2024-10-01T10:00:00", "100", 1);
+        assertPoint(points.get(1), "2024-10-01T11:00:00", "0", 0);
+        assertPoint(points.get(2), "2024-10-01T12:00:00", "0", 0);
+    }
+
+    @Test
+    public void daySeries_CombinesHeadFullDaysAndTail() throws Exception {
+        List<RevenuePointResponse> points = series(RevenueBucket.DAY,
+                LocalDateTime.parse("2024-10-01T12:00:00"), LocalDateTime.parse("2024-10-04T12:00:00"));
+        assertEquals(4, points.size());
+        assertPoint(points.get(0), "2024-10-01T00:00:00", "50", 1);
+        assertPoint(points.get(1), "2024-10-02T00:00:00", "200", 1);
+        assertPoint(points.get(2), "2024-10-03T00:00:00", "0", 0);
+        assertPoint(points.get(3), "2024-10-04T00:00:00", "25", 1);
+    }
+
+    @Test
+    public void weekSeries_AlignsBucketsToMonday() throws Exception {
+        List<RevenuePointResponse> points = series(RevenueBucket.WEEK,
+                LocalDateTime.parse("2024-10-01T00:00:00"), LocalDateTime.parse("2024-10-15T00:00:00"));
+        assertEquals(3, points.size());
+        assertPoint(points.get(0), "2024-09-30T00:00:00", "375", 4);
+        assertPoint(points.get(1), "2024-10-07T00:00:00", "10", 1);
+        assertPoint(points.get(2), "2024-10-14T00:00:00", "0", 0);
+    }
+
+    private List<RevenuePointResponse> series(RevenueBucket bucket, LocalDateTime start, LocalDateTime end) throws Exception {
+        SellerIdRegistry sellerIdRegistry = mock(SellerIdRegistry.class);
+        when(sellerIdRegistry.contains(anyLong())).thenReturn(true);
+        RevenueSeriesService service = new RevenueSeriesService(dataSource, new DataSourceTransactionManager(dataSource),
+                objectMapper, sellerIdRegistry, 2, 10000);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.series(bucket, 1L, start, end).writeTo(output);
+        List<RevenuePointResponse> points = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            assertEquals(line.strip(), line);
+            points.add(objectMapper.readValue(line, RevenuePointResponse.class));
+        }
+        return points;
+    }
+
+    private static void assertPoint(RevenuePointResponse point, String bucketStart, String amount, long transactionCount) {
+        assertEquals(1L, point.getSellerId());
+        assertEquals(LocalDateTime.parse(bucketStart), point.getBucketStart());
+        assertEquals(0, new BigDecimal(amount).compareTo(point.getAmount()), "amount of " + bucketStart);
+        assertEquals(transactionCount, point.getTransactionCount(), "transaction count of " + bucketStart);
+    }
+
+}
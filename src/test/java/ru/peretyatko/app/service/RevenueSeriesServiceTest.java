@@ -0,0 +1,67 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.peretyatko.app.dto.seller.RevenueBucket;
+import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueSeriesServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.parse("2024-01-01T00:00:00");
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SellerIdRegistry sellerIdRegistry;
+
+    private RevenueSeriesService revenueSeriesService;
+
+    @BeforeEach
+    public void setUp() {
+        revenueSeriesService = new RevenueSeriesService(dataSource, transactionManager, new ObjectMapper(), sellerIdRegistry, 1000, 2160);
+    }
+
+    @Test
+    public void series_AcceptsNinetyDaysOfHours() {
+        assertNotNull(revenueSeriesService.series(RevenueBucket.HOUR, null, START, START.plusDays(90).minusHours(1)));
+    }
+
+    @Test
+    public void series_ReturnsErrorOnTooManyBuckets() {
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            revenueSeriesService.series(RevenueBucket.HOUR, null, START, START.plusDays(90));
+        });
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getCode());
+    }
+
+    @Test
+    public void series_ReturnsErrorOnUnknownSeller() {
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(false);
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            revenueSeriesService.series(RevenueBucket.DAY, 1L, START, START.plusDays(90));
+        });
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getCode());
+    }
+
+}
@@ -0,0 +1,69 @@
+package ru.peretyatko.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.peretyatko.app.event.TransactionChange;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.model.PaymentType;
+import ru.peretyatko.app.model.Seller;
+import ru.peretyatko.app.model.Transaction;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SellerDailyTotalsServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SellerDailyTotalsService sellerDailyTotalsService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void onTransactionsChanged_AggregatesDeltasPerSellerAndDay() {
+        Seller seller1 = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null);
+        Seller seller2 = new Seller(2L, "Igor", "igor@mail.ru", LocalDateTime.now(), null);
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00");
+        Transaction transaction1 = new Transaction(1L, seller2, 100, PaymentType.CASH, date);
+        Transaction transaction2 = new Transaction(2L, seller1, 200, PaymentType.CARD, date);
+        Transaction transaction3 = new Transaction(3L, seller1, 50, PaymentType.CARD, date.plusHours(1));
+        sellerDailyTotalsService.onTransactionsChanged(new TransactionsChangedEvent(List.of(
+                TransactionChange.created(transaction1),
+                TransactionChange.created(transaction2),
+                TransactionChange.updated(transaction3, PaymentType.CARD, 80),
+                TransactionChange.deleted(transaction1))));
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SellerDailyTotalsService.SQL_UPSERT_DAILY_TOTAL), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        Object[] row = rows.getValue().getFirst();
+        assertEquals(1L, row[0]);
+        assertEquals(Date.valueOf("2024-10-01"), row[1]);
+        assertEquals(0, new BigDecimal("170").compareTo((BigDecimal) row[2]));
+        assertEquals(1L, row[3]);
+    }
+
+    @Test
+    public void onTransactionsChanged_SkipsEmptyDeltas() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null);
+        Transaction transaction = new Transaction(1L, seller, 100, PaymentType.CASH, LocalDateTime.now());
+        sellerDailyTotalsService.onTransactionsChanged(new TransactionsChangedEvent(List.of(
+                TransactionChange.created(transaction),
+                TransactionChange.deleted(transaction))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+}
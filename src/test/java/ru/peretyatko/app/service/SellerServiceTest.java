@@ -1,31 +1,50 @@
 package ru.peretyatko.app.service;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.NoResultException;
-import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.peretyatko.app.cache.AnalyticsCache;
+import ru.peretyatko.app.dto.EntityVersion;
+import ru.peretyatko.app.dto.PageResponse;
 import ru.peretyatko.app.dto.seller.SellerPatchRequest;
 import ru.peretyatko.app.dto.seller.SellerPostRequest;
+import ru.peretyatko.app.dto.seller.SellerRankResponse;
 import ru.peretyatko.app.dto.seller.SellerResponse;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
 import ru.peretyatko.app.error.exception.ServiceException;
 import ru.peretyatko.app.mapper.SellerMapper;
+import ru.peretyatko.app.mapper.SellerMapperImpl;
 import ru.peretyatko.app.model.PaymentType;
 import ru.peretyatko.app.model.Seller;
 import ru.peretyatko.app.model.Transaction;
+import ru.peretyatko.app.pagination.CursorCodec;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.pagination.PaginationProperties;
+import ru.peretyatko.app.purge.SellerPurgeService;
+import ru.peretyatko.app.ranking.RankingProperties;
+import ru.peretyatko.app.registry.SellerIdRegistry;
+import ru.peretyatko.app.repository.SellerAnalyticsRepository;
 import ru.peretyatko.app.repository.SellerRepository;
+import ru.peretyatko.app.repository.TransactionRepository;
 import ru.peretyatko.app.dto.RangeDate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.*;
@@ -37,11 +56,43 @@ class SellerServiceTest {
     private SellerRepository sellerRepository;
 
     @Mock
-    private EntityManager entityManager;
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private SellerAnalyticsRepository sellerAnalyticsRepository;
+
+    @Mock
+    private SellerIdRegistry sellerIdRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AnalyticsCache analyticsCache;
+
+    @Mock
+    private SellerPurgeService sellerPurgeService;
+
+    @Spy
+    private SellerMapper sellerMapper = new SellerMapperImpl();
+
+    @Spy
+    private CursorCodec cursorCodec = new CursorCodec();
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private RankingProperties rankingProperties = new RankingProperties();
 
     @InjectMocks
     private SellerService sellerService;
 
+    @BeforeEach
+    public void setUp() {
+        lenient().when(analyticsCache.get(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
 
     @Test
     public void add_ReturnsSeller() {
@@ -57,16 +108,69 @@ class SellerServiceTest {
 
     @Test
     public void findAll_ReturnsSellers() {
-        List<Seller> sellers = List.of(new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null),
-                new Seller(2L, "Igor", "igor@mail.ru", LocalDateTime.now(), null));
-        when(sellerRepository.findAll()).thenReturn(sellers);
-        List<SellerResponse> result = sellerService.getSellers();
-        assertEquals(sellers.getFirst().getName(), result.getFirst().getName());
-        assertEquals(sellers.getLast().getName(), result.getLast().getName());
-        assertEquals(sellers.getFirst().getContactInfo(), result.getFirst().getContactInfo());
-        assertEquals(sellers.getLast().getContactInfo(), result.getLast().getContactInfo());
-        assertEquals(sellers.getFirst().getRegistrationDate(), result.getFirst().getRegistrationDate());
-        assertEquals(sellers.getLast().getRegistrationDate(), result.getLast().getRegistrationDate());
+        List<SellerResponse> sellers = List.of(new SellerResponse(1L, "Ilya", "+78005553535", LocalDateTime.now()),
+                new SellerResponse(2L, "Igor", "igor@mail.ru", LocalDateTime.now()));
+        when(sellerRepository.findPageAfter(eq(0L), any())).thenReturn(sellers);
+        PageResponse<SellerResponse> result = sellerService.getSellers(null, null);
+        assertEquals(sellers.getFirst().getName(), result.getItems().getFirst().getName());
+        assertEquals(sellers.getLast().getName(), result.getItems().getLast().getName());
+        assertEquals(sellers.getFirst().getContactInfo(), result.getItems().getFirst().getContactInfo());
+        assertEquals(sellers.getLast().getContactInfo(), result.getItems().getLast().getContactInfo());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void findAll_ReturnsNextCursor() {
+        List<SellerResponse> sellers = List.of(new SellerResponse(1L, "Ilya", "+78005553535", LocalDateTime.now()),
+                new SellerResponse(2L, "Igor", "igor@mail.ru", LocalDateTime.now()));
+        when(sellerRepository.findPageAfter(eq(0L), any())).thenReturn(sellers);
+        PageResponse<SellerResponse> result = sellerService.getSellers(null, 1);
+        assertEquals(1, result.getItems().size());
+        when(sellerRepository.findPageAfter(eq(1L), any())).thenReturn(List.of(sellers.getLast()));
+        PageResponse<SellerResponse> next = sellerService.getSellers(result.getNextCursor(), 1);
+        assertEquals(sellers.getLast().getId(), next.getItems().getFirst().getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    public void findAll_ReturnsErrorOnInvalidCursor() {
+        Exception exception = assertThrows(ServiceException.class, () -> {
+            sellerService.getSellers("not a cursor", null);
+        });
+    }
+
+    @Test
+    public void getSeller_ReturnsProjection() {
+        SellerResponse seller = new SellerResponse(1L, "Ilya", "+78005553535", LocalDateTime.now());
+        when(sellerRepository.findResponseById(eq(1L))).thenReturn(Optional.of(seller));
+        SellerResponse result = sellerService.getSeller(1L);
+        assertEquals(seller.getName(), result.getName());
+        verify(sellerRepository, never()).findById(any());
+    }
+
+    @Test
+    public void getSeller_ReturnsError() {
+        when(sellerRepository.findResponseById(eq(1L))).thenReturn(Optional.empty());
+        Exception exception = assertThrows(ServiceException.class, () -> {
+            sellerService.getSeller(1L);
+        });
+    }
+
+    @Test
+    public void getSellersVersions_UsesSameKeysetAsPage() {
+        List<EntityVersion> versions = List.of(new EntityVersion(2L, 0L, LocalDateTime.now()), new EntityVersion(3L, 1L, LocalDateTime.now()));
+        when(sellerRepository.findVersionPageAfter(eq(1L), any())).thenReturn(versions);
+        List<EntityVersion> result = sellerService.getSellersVersions(cursorCodec.encode(1L), 1);
+        assertEquals(versions, result);
+        verify(sellerRepository, never()).findPageAfter(anyLong(), any());
+    }
+
+    @Test
+    public void getSellerIfModified_SkipsBodyWhenNotModified() {
+        EntityVersion version = new EntityVersion(1L, 0L, LocalDateTime.now());
+        when(sellerRepository.findVersionById(eq(1L))).thenReturn(Optional.of(version));
+        assertTrue(sellerService.getSellerIfModified(1L, version::equals).isEmpty());
+        verify(sellerRepository, never()).findResponseById(anyLong());
     }
 
     @Test
@@ -91,26 +195,36 @@ class SellerServiceTest {
 
     @Test
     public void findTransactionsBySeller_ReturnsTransactions() {
-        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null);
-        seller.setId(1L);
-        List<Transaction> transactions = List.of(new Transaction(1L, seller, 1000, PaymentType.CARD, LocalDateTime.now()),
-                new Transaction(2L, seller, 2000, PaymentType.CARD, LocalDateTime.now()));
-        seller.setTransactions(transactions);
-        when(sellerRepository.findById(eq(1L))).thenReturn(Optional.of(seller));
-        List<TransactionResponse> result = sellerService.getTransactionsOfSeller(seller.getId());
-        assertEquals(seller.getTransactions().getFirst().getAmount(), result.getFirst().getAmount());
-        assertEquals(seller.getTransactions().getFirst().getPaymentType(), result.getFirst().getPaymentType());
-        assertEquals(seller.getTransactions().getFirst().getTransactionDate(), result.getFirst().getTransactionDate());
-        assertEquals(seller.getTransactions().getLast().getAmount(), result.getLast().getAmount());
-        assertEquals(seller.getTransactions().getLast().getPaymentType(), result.getLast().getPaymentType());
-        assertEquals(seller.getTransactions().getLast().getTransactionDate(), result.getLast().getTransactionDate());
+        List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 1000, PaymentType.CARD, LocalDateTime.now()),
+                new TransactionResponse(2L, 1L, 2000, PaymentType.CARD, LocalDateTime.now()));
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(true);
+        when(transactionRepository.findPageOfSellerAfter(eq(1L), eq(DateKeyset.ORIGIN), eq(0L), eq(DateKeyset.HORIZON), any())).thenReturn(transactions);
+        PageResponse<TransactionResponse> result = sellerService.getTransactionsOfSeller(1L, null, null, null, null);
+        assertEquals(transactions.getFirst().getAmount(), result.getItems().getFirst().getAmount());
+        assertEquals(transactions.getFirst().getPaymentType(), result.getItems().getFirst().getPaymentType());
+        assertEquals(transactions.getFirst().getTransactionDate(), result.getItems().getFirst().getTransactionDate());
+        assertEquals(transactions.getLast().getAmount(), result.getItems().getLast().getAmount());
+        assertEquals(transactions.getLast().getPaymentType(), result.getItems().getLast().getPaymentType());
+        assertEquals(transactions.getLast().getTransactionDate(), result.getItems().getLast().getTransactionDate());
+    }
+
+    @Test
+    public void findTransactionsBySeller_ReturnsTransactionsInRange() {
+        LocalDateTime start = LocalDateTime.parse("2024-10-01T00:00:00");
+        LocalDateTime end = LocalDateTime.parse("2024-11-01T00:00:00");
+        List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 1000, PaymentType.CARD, start.plusDays(1)));
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(true);
+        when(transactionRepository.findPageOfSellerAfter(eq(1L), eq(start), eq(0L), eq(end), any())).thenReturn(transactions);
+        PageResponse<TransactionResponse> result = sellerService.getTransactionsOfSeller(1L, start, end, null, null);
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
     }
 
     @Test
     public void findTransactionsBySeller_ReturnsError() {
-        when(sellerRepository.findById(eq(1L))).thenReturn(Optional.empty());
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(false);
         Exception exception = assertThrows(ServiceException.class, () -> {
-            sellerService.findById(1L);
+            sellerService.getTransactionsOfSeller(1L, null, null, null, null);
         });
     }
 
@@ -133,16 +247,18 @@ class SellerServiceTest {
 
     @Test
     public void delete_ReturnsSuccess() {
-        when(sellerRepository.existsById(eq(1L))).thenReturn(true);
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(true);
         sellerService.deleteSeller(1L);
+        verify(sellerPurgeService).purge(eq(1L));
     }
 
     @Test
     public void delete_ReturnsError() {
-        when(sellerRepository.existsById(eq(1L))).thenReturn(false);
+        when(sellerIdRegistry.contains(eq(1L))).thenReturn(false);
         Exception exception = assertThrows(ServiceException.class, () -> {
             sellerService.deleteSeller(1L);
         });
+        verify(sellerPurgeService, never()).purge(anyLong());
     }
 
     @Test
@@ -150,11 +266,8 @@ class SellerServiceTest {
         Seller seller = new Seller(1L,"Ilya", "+78005553535", LocalDateTime.now(), null);
         seller.setId(1L);
         RangeDate rangeDate = new RangeDate(LocalDateTime.now().minusMonths(12), LocalDateTime.now());
-        Query query = mock(Query.class);
-        when(entityManager.createNativeQuery(eq(SellerService.SQL_BEST_SELLER), eq(Seller.class))).thenReturn(query);
-        when(query.setParameter(eq("start"), any(LocalDateTime.class))).thenReturn(query);
-        when(query.setParameter(eq("end"), any(LocalDateTime.class))).thenReturn(query);
-        when(query.getResultList()).thenReturn(List.of(seller));
+        when(sellerAnalyticsRepository.findBestSeller(eq(rangeDate.getStart()), eq(rangeDate.getEnd()))).thenReturn(Optional.of(new SellerResponse(seller.getId(),
+                seller.getName(), seller.getContactInfo(), seller.getRegistrationDate())));
         SellerResponse result = sellerService.getBestSeller(rangeDate);
         assertEquals(seller.getId(), result.getId());
         assertEquals(seller.getName(), result.getName());
@@ -165,11 +278,7 @@ class SellerServiceTest {
     @Test
     public void findBestSeller_ReturnsError() {
         RangeDate rangeDate = new RangeDate(LocalDateTime.now().minusMonths(12), LocalDateTime.now());
-        Query query = mock(Query.class);
-        when(entityManager.createNativeQuery(eq(SellerService.SQL_BEST_SELLER), eq(Seller.class))).thenReturn(query);
-        when(query.setParameter(eq("start"), any(LocalDateTime.class))).thenReturn(query);
-        when(query.setParameter(eq("end"), any(LocalDateTime.class))).thenReturn(query);
-        when(query.getResultList()).thenThrow(new NoResultException());
+        when(sellerAnalyticsRepository.findBestSeller(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(Optional.empty());
         Exception exception = assertThrows(ServiceException.class, () -> {
             sellerService.getBestSeller(rangeDate);
         });
@@ -177,16 +286,12 @@ class SellerServiceTest {
 
     @Test
     public void findSellersSumLessThen_ReturnsBestSeller() {
-        Seller seller1 = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null);
-        seller1.setId(1L);
-        Seller seller2 = new Seller(1L, "Igor", "+78007773535", LocalDateTime.now(), null);
-        seller2.setId(1L);
-        List<Seller> sellers = List.of(seller1, seller2);
-        Query query = mock(Query.class);
-        when(entityManager.createNativeQuery(eq(SellerService.SQL_SUM_LESS_THEN), eq(Seller.class))).thenReturn(query);
-        when(query.setParameter(eq("maxSum"), eq(100))).thenReturn(query);
-        when(query.getResultList()).thenReturn(sellers);
-        List<SellerResponse> result = sellerService.getSellersSumLessThen(100, any(RangeDate.class));
+        SellerResponse seller1 = new SellerResponse(1L, "Ilya", "+78005553535", LocalDateTime.now());
+        SellerResponse seller2 = new SellerResponse(2L, "Igor", "+78007773535", LocalDateTime.now());
+        List<SellerResponse> sellers = List.of(seller1, seller2);
+        RangeDate rangeDate = new RangeDate(LocalDateTime.now().minusMonths(12), LocalDateTime.now());
+        when(sellerAnalyticsRepository.findSellersSumLessThen(eq(100), eq(rangeDate.getStart()), eq(rangeDate.getEnd()))).thenReturn(sellers);
+        List<SellerResponse> result = sellerService.getSellersSumLessThen(100, rangeDate);
         assertEquals(sellers.getFirst().getId(), result.getFirst().getId());
         assertEquals(sellers.getLast().getId(), result.getLast().getId());
         assertEquals(sellers.getFirst().getName(), result.getFirst().getName());
@@ -197,7 +302,27 @@ class SellerServiceTest {
         assertEquals(sellers.getLast().getRegistrationDate(), result.getLast().getRegistrationDate());
     }
 
+    @Test
+    public void getTopSellers_PagesThroughTies() {
+        List<SellerRankResponse> ranking = List.of(new SellerRankResponse(1L, 3L, "Ilya", new BigDecimal("500"), 5L),
+                new SellerRankResponse(2L, 1L, "Igor", new BigDecimal("300"), 2L),
+                new SellerRankResponse(2L, 2L, "Oleg", new BigDecimal("300"), 3L),
+                new SellerRankResponse(3L, 4L, "Anna", new BigDecimal("100"), 1L));
+        when(sellerAnalyticsRepository.findTopSellers(any(), any(), eq(PaymentType.CARD), eq(100))).thenReturn(ranking);
+        PageResponse<SellerRankResponse> first = sellerService.getTopSellers(null, null, PaymentType.CARD, null, null, 2);
+        assertEquals(List.of(3L, 1L), first.getItems().stream().map(SellerRankResponse::getSellerId).toList());
+        PageResponse<SellerRankResponse> second = sellerService.getTopSellers(null, null, PaymentType.CARD, null, first.getNextCursor(), 2);
+        assertEquals(List.of(2L, 4L), second.getItems().stream().map(SellerRankResponse::getSellerId).toList());
+        assertEquals(2L, second.getItems().getFirst().getRank());
+        assertNull(second.getNextCursor());
+    }
 
+    @Test
+    public void getTopSellers_ReturnsErrorOnTopAboveMax() {
+        Exception exception = assertThrows(ServiceException.class, () -> {
+            sellerService.getTopSellers(null, null, null, rankingProperties.getMaxTop() + 1, null, null);
+        });
+        verify(sellerAnalyticsRepository, never()).findTopSellers(any(), any(), any(), anyInt());
+    }
 
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package ru.peretyatko.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.peretyatko.app.dto.transaction.ExportFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionExportServiceTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:12");
+
+    private static DriverManagerDataSource dataSource;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("filesystem:src/main/resources/db.migration")
+                .load()
+                .migrate();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO sellers (id, name, contact_info, registration_date) VALUES (1, 'Ilya', '+78005553535', TIMESTAMP '2023-10-01 15:30:00')");
+            statement.execute("""
+                    INSERT INTO transactions (id, seller_id, amount, payment_type, transaction_date)
+                    VALUES (1, 1, 1500, 'CASH', TIMESTAMP '2024-10-01 15:30:00'),
+                           (2, 1, 2000, 'CARD', TIMESTAMP '2024-10-02 15:30:00')
+                    """);
+        }
+    }
+
+    @Test
+    public void exportNdjson_WritesOneObjectPerLine() throws Exception {
+        assertEquals("""
+                {"id":1,"sellerId":1,"amount":1500.0,"paymentType":"CASH","transactionDate":"2024-10-01T15:30:00"}
+                {"id":2,"sellerId":1,"amount":2000.0,"paymentType":"CARD","transactionDate":"2024-10-02T15:30:00"}
+                """, export(ExportFormat.NDJSON));
+    }
+
+    @Test
+    public void exportCsv_WritesHeaderAndRows() throws Exception {
+        assertEquals("""
+                id,seller_id,amount,payment_type,transaction_date
+                1,1,1500.0,CASH,2024-10-01T15:30
+                2,1,2000.0,CARD,2024-10-02T15:30
+                """, export(ExportFormat.CSV));
+    }
+
+    private String export(ExportFormat format) throws Exception {
+        TransactionExportService service = new TransactionExportService(dataSource,
+                new DataSourceTransactionManager(dataSource), objectMapper, 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.export(format, 1L, null, null).writeTo(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+}
@@ -1,29 +1,52 @@
 package ru.peretyatko.app.service;
 
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import ru.peretyatko.app.dto.PageResponse;
+import ru.peretyatko.app.dto.transaction.TransactionBatchResponse;
 import ru.peretyatko.app.dto.transaction.TransactionPatchRequest;
 import ru.peretyatko.app.dto.transaction.TransactionPostRequest;
 import ru.peretyatko.app.dto.transaction.TransactionResponse;
 import ru.peretyatko.app.error.exception.ServiceException;
+import ru.peretyatko.app.event.TransactionsChangedEvent;
+import ru.peretyatko.app.ingestion.IngestionProperties;
+import ru.peretyatko.app.mapper.TransactionMapper;
+import ru.peretyatko.app.mapper.TransactionMapperImpl;
 import ru.peretyatko.app.model.PaymentType;
 import ru.peretyatko.app.model.Seller;
 import ru.peretyatko.app.model.Transaction;
+import ru.peretyatko.app.pagination.CursorCodec;
+import ru.peretyatko.app.pagination.DateKeyset;
+import ru.peretyatko.app.pagination.PaginationProperties;
 import ru.peretyatko.app.repository.SellerRepository;
 import ru.peretyatko.app.repository.TransactionRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +58,30 @@ class TransactionServiceTest {
     @Mock
     private SellerRepository sellerRepository;
 
+    @Mock
+    private SellerService sellerService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TransactionMapper transactionMapper = new TransactionMapperImpl();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private IngestionProperties ingestionProperties = new IngestionProperties();
+
+    @Spy
+    private CursorCodec cursorCodec = new CursorCodec();
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -42,9 +89,9 @@ class TransactionServiceTest {
     public void add_ReturnsTransaction() {
         Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
         Transaction transaction = new Transaction(1L, seller, 10000, PaymentType.CASH, LocalDateTime.now());
-        when(sellerRepository.existsById(seller.getId())).thenReturn(true);
-        when(transactionRepository.save(any())).thenReturn(transaction);
-        TransactionResponse result = transactionService.createTransaction(any(TransactionPostRequest.class));
+        when(sellerService.getReference(eq(1L))).thenReturn(seller);
+        when(transactionRepository.saveAndFlush(any())).thenReturn(transaction);
+        TransactionResponse result = transactionService.createTransaction(new TransactionPostRequest(1L, 10000, PaymentType.CASH));
         assertEquals(transaction.getId(), result.getId());
         assertEquals(transaction.getAmount(), result.getAmount());
         assertEquals(transaction.getPaymentType(), result.getPaymentType());
@@ -55,34 +102,77 @@ class TransactionServiceTest {
     public void add_ReturnsError() {
         Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now(), null);
         TransactionPostRequest transaction = new TransactionPostRequest(1L, 10000, PaymentType.CASH);
-        when(sellerRepository.existsById(seller.getId())).thenReturn(false);
+        doThrow(new ServiceException(HttpStatus.NOT_FOUND, "Seller wasn't found.")).when(sellerService).requireExisting(eq(seller.getId()));
         Exception exception = assertThrows(ServiceException.class, () -> {
             transactionService.createTransaction(transaction);
         });
+        verify(transactionRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void add_ReturnsErrorOnForeignKeyViolation() {
+        TransactionPostRequest transaction = new TransactionPostRequest(1L, 10000, PaymentType.CASH);
+        SQLException cause = new SQLException("ERROR: insert or update on table \"transactions_default\" violates foreign key constraint \"transactions_seller_id_fkey\"", "23503");
+        when(transactionRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("could not execute statement", cause));
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            transactionService.createTransaction(transaction);
+        });
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getCode());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void add_PropagatesOtherIntegrityViolations() {
+        TransactionPostRequest transaction = new TransactionPostRequest(1L, 10000, PaymentType.CASH);
+        SQLException cause = new SQLException("ERROR: null value in column \"payment_type\" violates not-null constraint", "23502");
+        when(transactionRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("could not execute statement", cause));
+        assertThrows(DataIntegrityViolationException.class, () -> {
+            transactionService.createTransaction(transaction);
+        });
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     public void findAll_ReturnsAllTransactions() {
-        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
-        Transaction transaction1 = new Transaction(1L, seller, 10000, PaymentType.CASH, LocalDateTime.now());
-        Transaction transaction2 = new Transaction(2L, seller, 20000, PaymentType.CASH, LocalDateTime.now());
-        Transaction transaction3 = new Transaction(3L, seller, 30000, PaymentType.CASH, LocalDateTime.now());
-        List<Transaction> transactions = List.of(transaction1, transaction2, transaction3);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-        List<TransactionResponse> result = transactionService.getTransactions();
+        List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 10000, PaymentType.CASH, LocalDateTime.now()),
+                new TransactionResponse(2L, 1L, 20000, PaymentType.CASH, LocalDateTime.now()),
+                new TransactionResponse(3L, 1L, 30000, PaymentType.CASH, LocalDateTime.now()));
+        when(transactionRepository.findPageAfter(eq(DateKeyset.ORIGIN), eq(0L), any())).thenReturn(transactions);
+        PageResponse<TransactionResponse> result = transactionService.getTransactions(null, null);
         for (int i = 0; i < 3; ++i) {
-            assertEquals(transactions.get(i).getId(), result.get(i).getId());
-            assertEquals(transactions.get(i).getAmount(), result.get(i).getAmount());
-            assertEquals(transactions.get(i).getPaymentType(), result.get(i).getPaymentType());
-            assertEquals(transactions.get(i).getTransactionDate(), result.get(i).getTransactionDate());
+            assertEquals(transactions.get(i).getId(), result.getItems().get(i).getId());
+            assertEquals(transactions.get(i).getAmount(), result.getItems().get(i).getAmount());
+            assertEquals(transactions.get(i).getPaymentType(), result.getItems().get(i).getPaymentType());
+            assertEquals(transactions.get(i).getTransactionDate(), result.getItems().get(i).getTransactionDate());
         }
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void findAll_ReturnsNextCursor() {
+        LocalDateTime date = LocalDateTime.parse("2024-10-01T15:30:00.123456");
+        List<TransactionResponse> transactions = List.of(new TransactionResponse(1L, 1L, 10000, PaymentType.CASH, date),
+                new TransactionResponse(2L, 1L, 20000, PaymentType.CASH, date));
+        when(transactionRepository.findPageAfter(eq(DateKeyset.ORIGIN), eq(0L), any())).thenReturn(transactions);
+        PageResponse<TransactionResponse> result = transactionService.getTransactions(null, 1);
+        assertEquals(1, result.getItems().size());
+        when(transactionRepository.findPageAfter(eq(date), eq(1L), any())).thenReturn(List.of(transactions.getLast()));
+        PageResponse<TransactionResponse> next = transactionService.getTransactions(result.getNextCursor(), 1);
+        assertEquals(2L, next.getItems().getFirst().getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    public void findAll_ReturnsErrorOnLimitAboveMax() {
+        Exception exception = assertThrows(ServiceException.class, () -> {
+            transactionService.getTransactions(null, paginationProperties.getMaxLimit() + 1);
+        });
     }
 
     @Test
     public void findById_ReturnsTransaction() {
-        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
-        Transaction transaction = new Transaction(1L, seller, 10000, PaymentType.CASH, LocalDateTime.now());
-        when(transactionRepository.findById(eq(1L))).thenReturn(Optional.of(transaction));
+        TransactionResponse transaction = new TransactionResponse(1L, 1L, 10000, PaymentType.CASH, LocalDateTime.now());
+        when(transactionRepository.findResponseById(eq(1L))).thenReturn(Optional.of(transaction));
         TransactionResponse result = transactionService.getTransaction(1L);
         assertEquals(transaction.getId(), result.getId());
         assertEquals(transaction.getAmount(), result.getAmount());
@@ -92,12 +182,21 @@ class TransactionServiceTest {
 
     @Test
     public void findById_ReturnsError() {
-        when(transactionRepository.findById(eq(1L))).thenReturn(Optional.empty());
+        when(transactionRepository.findResponseById(eq(1L))).thenReturn(Optional.empty());
         Exception exception = assertThrows(ServiceException.class, () -> {
             transactionService.getTransaction(1L);
         });
     }
 
+    @Test
+    public void findVersionById_ReturnsError() {
+        when(transactionRepository.findVersionById(eq(1L))).thenReturn(Optional.empty());
+        ServiceException exception = assertThrows(ServiceException.class, () -> {
+            transactionService.getTransactionVersion(1L);
+        });
+        assertEquals(HttpStatus.NOT_FOUND.value(), exception.getCode());
+    }
+
     @Test
     public void update_ReturnsTransaction() {
         Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
@@ -121,16 +220,46 @@ class TransactionServiceTest {
 
     @Test
     public void delete_ReturnsSuccess() {
-        when(transactionRepository.existsById(eq(1L))).thenReturn(true);
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
+        Transaction transaction = new Transaction(1L, seller, 10000, PaymentType.CASH, LocalDateTime.now());
+        when(transactionRepository.findById(eq(1L))).thenReturn(Optional.of(transaction));
         transactionService.deleteTransaction(1L);
+        verify(transactionRepository).delete(eq(transaction));
+        verify(eventPublisher).publishEvent(any(TransactionsChangedEvent.class));
     }
 
     @Test
     public void delete_ReturnsError() {
-        when(transactionRepository.existsById(eq(1L))).thenReturn(false);
+        when(transactionRepository.findById(eq(1L))).thenReturn(Optional.empty());
         Exception exception = assertThrows(ServiceException.class, () -> {
             transactionService.deleteTransaction(1L);
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void addBatch_ReturnsCreatedAndErrors() {
+        Seller seller = new Seller(1L, "Ilya", "+78005553535", LocalDateTime.now().minusDays(10), null);
+        List<TransactionPostRequest> requests = List.of(new TransactionPostRequest(1L, 10000, PaymentType.CASH),
+                new TransactionPostRequest(1L, -5, PaymentType.CASH),
+                new TransactionPostRequest(2L, 20000, PaymentType.CARD));
+        when(sellerService.findExistingIds(eq(Set.of(1L, 2L)))).thenReturn(Set.of(1L));
+        when(sellerService.getReference(eq(1L))).thenReturn(seller);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionBatchResponse result = transactionService.createTransactions(requests);
+        assertEquals(1, result.getCreated().size());
+        assertEquals(10000, result.getCreated().getFirst().getAmount());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals(Set.of("amount"), result.getErrors().get(0).getFieldsWithError());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        assertEquals(Set.of("sellerId"), result.getErrors().get(1).getFieldsWithError());
+    }
+
+    @Test
+    public void addBatch_ReturnsErrorOnEmptyBatch() {
+        Exception exception = assertThrows(ServiceException.class, () -> {
+            transactionService.createTransactions(List.of());
+        });
+    }
+
+}
@@ -0,0 +1,44 @@
+package ru.peretyatko.app.statement;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Optional;
+
+public class StatementBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (findBudget(context).isEmpty()) {
+            return;
+        }
+        StatementCounter statementCounter = SpringExtension.getApplicationContext(context).getBean(StatementCounter.class);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), statementCounter.open());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        StatementCounter.Scope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), StatementCounter.Scope.class);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+        int budget = findBudget(context).orElseThrow().value();
+        if (scope.getCount() > budget) {
+            throw new AssertionFailedError(context.getDisplayName() + " executed " + scope.getCount()
+                    + " SQL statements, budget is " + budget, budget, scope.getCount());
+        }
+    }
+
+    private Optional<MaxStatements> findBudget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxStatements.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxStatements.class));
+    }
+
+}
@@ -0,0 +1,69 @@
+package ru.peretyatko.app.statement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StatementBudgetFilterTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private final StatementBudgetProperties properties = new StatementBudgetProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StatementBudgetFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        properties.setMaxStatements(2);
+        properties.setEndpoints(Map.of("/api/transactions/batch", 100));
+        filter = new StatementBudgetFilter(statementCounter, properties, meterRegistry);
+    }
+
+    @Test
+    public void doFilter_RecordsStatementsPerEndpoint() throws Exception {
+        perform("/api/sellers/{id}", 2);
+        perform("/api/sellers/{id}", 1);
+        assertEquals(2, meterRegistry.get("crm.http.statements").tag("uri", "/api/sellers/{id}").summary().count());
+        assertEquals(3.0, meterRegistry.get("crm.http.statements").tag("uri", "/api/sellers/{id}").summary().totalAmount());
+        assertNull(meterRegistry.find("crm.http.statements.over.budget").counter());
+    }
+
+    @Test
+    public void doFilter_CountsRequestsOverBudget() throws Exception {
+        perform("/api/transactions", 5);
+        perform("/api/transactions/batch", 50);
+        assertEquals(1.0, meterRegistry.get("crm.http.statements.over.budget").tag("uri", "/api/transactions").counter().count());
+        assertNull(meterRegistry.find("crm.http.statements.over.budget").tag("uri", "/api/transactions/batch").counter());
+    }
+
+    @Test
+    public void doFilter_IncludesStatementsInOuterScope() throws Exception {
+        try (StatementCounter.Scope scope = statementCounter.open()) {
+            perform("/api/sellers", 1);
+            statementCounter.inspect("select 1");
+            assertEquals(2, scope.getCount());
+        }
+        assertEquals(1.0, meterRegistry.get("crm.http.statements").tag("uri", "/api/sellers").summary().totalAmount());
+    }
+
+    private void perform(String pattern, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            for (int i = 0; i < statements; ++i) {
+                statementCounter.inspect("select " + i);
+            }
+        });
+    }
+
+}